@@ -20,47 +20,111 @@ package io.github.palexdev.mfxcore.base.bindings;
 
 import javafx.beans.binding.BooleanBinding;
 import javafx.beans.property.BooleanProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.WeakChangeListener;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 
 /**
  * A {@code BooleanListBinding} is a particular binding that takes a list of
  * {@link BooleanProperty} and observes each one of them updating its value
- * when they change. The value is true only when all properties are true, it's false
- * when even only one of them is false.
+ * when they change. By default, the value is true only when all properties are true, it's false
+ * when even only one of them is false. Other variants are offered by {@link #any(ObservableList)}
+ * and {@link #atLeast(ObservableList, int)}.
+ * <p>
+ * The binding keeps the number of true properties, which is updated by each property's change and by
+ * the additions/removals of the list, so the value is computed in O(1).
  */
 public class BooleanListBinding extends BooleanBinding {
+	private static final int ALL = -1;
+
 	private final ObservableList<BooleanProperty> boundList;
 	private final ListChangeListener<BooleanProperty> changeListener;
-	private BooleanProperty[] observedProperties;
+	private final ChangeListener<Boolean> propertyListener;
+	private final WeakChangeListener<Boolean> weakPropertyListener;
+	private final int threshold;
+	private int trueCount = 0;
 
 	public BooleanListBinding(ObservableList<BooleanProperty> boundList) {
+		this(boundList, ALL);
+	}
+
+	private BooleanListBinding(ObservableList<BooleanProperty> boundList, int threshold) {
 		this.boundList = boundList;
-		this.changeListener = c -> refreshBinding();
+		this.threshold = threshold;
+		this.changeListener = this::onChanged;
+		this.propertyListener = (observable, oldValue, newValue) -> {
+			trueCount += newValue ? 1 : -1;
+			invalidate();
+		};
+		this.weakPropertyListener = new WeakChangeListener<>(propertyListener);
 		this.boundList.addListener(changeListener);
-		refreshBinding();
+		for (BooleanProperty bp : boundList) {
+			observe(bp);
+		}
+	}
+
+	/**
+	 * @return a binding which is true when all properties are true, the same as the constructor
+	 */
+	public static BooleanListBinding all(ObservableList<BooleanProperty> boundList) {
+		return new BooleanListBinding(boundList, ALL);
+	}
+
+	/**
+	 * @return a binding which is true when at least one property is true
+	 */
+	public static BooleanListBinding any(ObservableList<BooleanProperty> boundList) {
+		return new BooleanListBinding(boundList, 1);
+	}
+
+	/**
+	 * @return a binding which is true when at least n properties are true
+	 */
+	public static BooleanListBinding atLeast(ObservableList<BooleanProperty> boundList, int n) {
+		if (n < 0) throw new IllegalArgumentException("The threshold cannot be negative: " + n);
+		return new BooleanListBinding(boundList, n);
+	}
+
+	/**
+	 * @return the number of true properties
+	 */
+	public int getTrueCount() {
+		return trueCount;
 	}
 
 	@Override
 	protected boolean computeValue() {
-		for (BooleanProperty bp : observedProperties) {
-			if (!bp.get()) {
-				return false;
-			}
-		}
-		return true;
+		return (threshold == ALL) ? trueCount == boundList.size() : trueCount >= threshold;
 	}
 
 	@Override
 	public void dispose() {
 		boundList.removeListener(changeListener);
+		for (BooleanProperty bp : boundList) {
+			bp.removeListener(weakPropertyListener);
+		}
 		super.dispose();
 	}
 
-	private void refreshBinding() {
-		super.unbind(observedProperties);
-		observedProperties = boundList.toArray(new BooleanProperty[0]);
-		super.bind(observedProperties);
-		this.invalidate();
+	private void onChanged(ListChangeListener.Change<? extends BooleanProperty> c) {
+		boolean changed = false;
+		while (c.next()) {
+			if (c.wasPermutated() || c.wasUpdated()) continue;
+			for (BooleanProperty bp : c.getRemoved()) {
+				bp.removeListener(weakPropertyListener);
+				if (bp.get()) trueCount--;
+			}
+			for (BooleanProperty bp : c.getAddedSubList()) {
+				observe(bp);
+			}
+			changed = true;
+		}
+		if (changed) invalidate();
+	}
+
+	private void observe(BooleanProperty bp) {
+		bp.addListener(weakPropertyListener);
+		if (bp.get()) trueCount++;
 	}
 }
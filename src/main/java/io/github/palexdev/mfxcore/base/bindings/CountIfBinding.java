@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2022 Parisi Alessandro
+ * This file is part of MFXCore (https://github.com/palexdev/MFXCore).
+ *
+ * MFXCore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MFXCore is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MFXCore.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.palexdev.mfxcore.base.bindings;
+
+import javafx.beans.binding.IntegerBinding;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * A {@code CountIfBinding} is a particular binding that counts the elements of an {@link ObservableList}
+ * which satisfy the given {@link Predicate}.
+ * <p>
+ * The count is not recomputed over the whole list, instead it's updated by processing the {@link ListChangeListener.Change}s,
+ * so the work is proportional to the number of changed elements. The result of the predicate for each element is cached,
+ * so that the removed ones can be discounted. The cache is an array in the same order as the elements, so each addition
+ * or removal sub-change also shifts the cached results after the change point, which is O(n - from) per sub-change.
+ * To react to changes of the elements, the list must be created with an extractor, so that it fires updates.
+ */
+public class CountIfBinding<T> extends IntegerBinding {
+	private final ObservableList<T> boundList;
+	private final Predicate<? super T> predicate;
+	private final ListChangeListener<T> changeListener;
+	private boolean[] matches = new boolean[16];
+	private int size = 0;
+	private int count = 0;
+
+	public CountIfBinding(ObservableList<T> boundList, Predicate<? super T> predicate) {
+		this.boundList = boundList;
+		this.predicate = predicate;
+		this.changeListener = this::onChanged;
+		this.boundList.addListener(changeListener);
+		insert(0, boundList.size());
+	}
+
+	@Override
+	protected int computeValue() {
+		return count;
+	}
+
+	@Override
+	public void dispose() {
+		boundList.removeListener(changeListener);
+		super.dispose();
+	}
+
+	private void onChanged(ListChangeListener.Change<? extends T> c) {
+		int oldCount = count;
+		while (c.next()) {
+			int from = c.getFrom();
+			int to = c.getTo();
+			if (c.wasPermutated()) {
+				boolean[] moved = Arrays.copyOfRange(matches, from, to);
+				for (int i = from; i < to; i++) {
+					matches[c.getPermutation(i)] = moved[i - from];
+				}
+			} else if (c.wasUpdated()) {
+				for (int i = from; i < to; i++) {
+					boolean match = predicate.test(boundList.get(i));
+					if (match != matches[i]) count += match ? 1 : -1;
+					matches[i] = match;
+				}
+			} else {
+				remove(from, c.getRemovedSize());
+				insert(from, to);
+			}
+		}
+		if (count != oldCount) invalidate();
+	}
+
+	private void insert(int from, int to) {
+		int added = to - from;
+		if (added == 0) return;
+		if (size + added > matches.length) matches = Arrays.copyOf(matches, Math.max(matches.length * 2, size + added));
+		System.arraycopy(matches, from, matches, to, size - from);
+		for (int i = from; i < to; i++) {
+			matches[i] = predicate.test(boundList.get(i));
+			if (matches[i]) count++;
+		}
+		size += added;
+	}
+
+	private void remove(int from, int removed) {
+		if (removed == 0) return;
+		for (int i = from; i < from + removed; i++) {
+			if (matches[i]) count--;
+		}
+		System.arraycopy(matches, from + removed, matches, from, size - from - removed);
+		size -= removed;
+	}
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2022 Parisi Alessandro
+ * This file is part of MFXCore (https://github.com/palexdev/MFXCore).
+ *
+ * MFXCore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MFXCore is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MFXCore.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.palexdev.mfxcore.base.bindings;
+
+import javafx.beans.binding.Bindings;
+import javafx.beans.binding.DoubleBinding;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.util.Arrays;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A {@code DoubleSumBinding} is a particular binding that computes the sum of the values extracted from
+ * the elements of an {@link ObservableList}.
+ * <p>
+ * The sum is not recomputed over the whole list, instead it's updated by processing the {@link ListChangeListener.Change}s,
+ * so the work is proportional to the number of changed elements. The extracted values are cached, so that the
+ * removed ones can be subtracted. The cache is an array in the same order as the elements, so each addition or removal
+ * sub-change also shifts the cached values after the change point, which is O(n - from) per sub-change, like the shift of
+ * the source list itself. To react to changes of the elements, the list must be created with an extractor,
+ * so that it fires updates.
+ * <p>
+ * The sum is compensated to limit the error accumulated by additions and subtractions, while infinite and NaN values
+ * are counted apart, so that they don't compromise the sum once removed.
+ * <p></p>
+ * The binding also offers the average of the values, see {@link #getAverage()} and {@link #averageBinding()}.
+ */
+public class DoubleSumBinding<T> extends DoubleBinding {
+	private final ObservableList<T> boundList;
+	private final ToDoubleFunction<? super T> extractor;
+	private final ListChangeListener<T> changeListener;
+	private double[] values = new double[16];
+	private int size = 0;
+
+	private double sum = 0.0;
+	private double compensation = 0.0;
+	private int nanCount = 0;
+	private int positiveInfinities = 0;
+	private int negativeInfinities = 0;
+	private DoubleBinding average;
+
+	public DoubleSumBinding(ObservableList<T> boundList, ToDoubleFunction<? super T> extractor) {
+		this.boundList = boundList;
+		this.extractor = extractor;
+		this.changeListener = this::onChanged;
+		this.boundList.addListener(changeListener);
+		insert(0, boundList.size());
+	}
+
+	/**
+	 * @return the number of elements in the list
+	 */
+	public int getCount() {
+		return size;
+	}
+
+	/**
+	 * @return the average of the values, NaN if the list is empty
+	 */
+	public double getAverage() {
+		return (size == 0) ? Double.NaN : get() / size;
+	}
+
+	/**
+	 * @return a binding which computes the average of the values, see {@link #getAverage()}
+	 */
+	public DoubleBinding averageBinding() {
+		if (average == null) average = Bindings.createDoubleBinding(this::getAverage, this);
+		return average;
+	}
+
+	@Override
+	protected double computeValue() {
+		if (nanCount > 0 || (positiveInfinities > 0 && negativeInfinities > 0)) return Double.NaN;
+		if (positiveInfinities > 0) return Double.POSITIVE_INFINITY;
+		if (negativeInfinities > 0) return Double.NEGATIVE_INFINITY;
+		return sum + compensation;
+	}
+
+	@Override
+	public void dispose() {
+		boundList.removeListener(changeListener);
+		if (average != null) average.dispose();
+		super.dispose();
+	}
+
+	private void onChanged(ListChangeListener.Change<? extends T> c) {
+		while (c.next()) {
+			int from = c.getFrom();
+			int to = c.getTo();
+			if (c.wasPermutated()) {
+				double[] moved = Arrays.copyOfRange(values, from, to);
+				for (int i = from; i < to; i++) {
+					values[c.getPermutation(i)] = moved[i - from];
+				}
+			} else if (c.wasUpdated()) {
+				for (int i = from; i < to; i++) {
+					accumulate(values[i], -1);
+					values[i] = extractor.applyAsDouble(boundList.get(i));
+					accumulate(values[i], 1);
+				}
+			} else {
+				remove(from, c.getRemovedSize());
+				insert(from, to);
+			}
+		}
+		invalidate();
+	}
+
+	private void insert(int from, int to) {
+		int count = to - from;
+		if (count == 0) return;
+		if (size + count > values.length) values = Arrays.copyOf(values, Math.max(values.length * 2, size + count));
+		System.arraycopy(values, from, values, to, size - from);
+		for (int i = from; i < to; i++) {
+			values[i] = extractor.applyAsDouble(boundList.get(i));
+			accumulate(values[i], 1);
+		}
+		size += count;
+	}
+
+	private void remove(int from, int count) {
+		if (count == 0) return;
+		for (int i = from; i < from + count; i++) {
+			accumulate(values[i], -1);
+		}
+		System.arraycopy(values, from + count, values, from, size - from - count);
+		size -= count;
+		if (size == 0) {
+			sum = 0.0;
+			compensation = 0.0;
+		}
+	}
+
+	/**
+	 * Adds (sign 1) or subtracts (sign -1) the given value to the sum, with Neumaier's compensated summation.
+	 */
+	private void accumulate(double value, int sign) {
+		if (Double.isNaN(value)) {
+			nanCount += sign;
+		} else if (value == Double.POSITIVE_INFINITY) {
+			positiveInfinities += sign;
+		} else if (value == Double.NEGATIVE_INFINITY) {
+			negativeInfinities += sign;
+		} else {
+			double v = value * sign;
+			double t = sum + v;
+			compensation += (Math.abs(sum) >= Math.abs(v)) ? (sum - t) + v : (v - t) + sum;
+			sum = t;
+		}
+	}
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2022 Parisi Alessandro
+ * This file is part of MFXCore (https://github.com/palexdev/MFXCore).
+ *
+ * MFXCore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MFXCore is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MFXCore.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.palexdev.mfxcore.base.bindings;
+
+import javafx.beans.binding.DoubleBinding;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A {@code MinMaxBinding} is a particular binding that computes the minimum or the maximum,
+ * see {@link #min(ObservableList, ToDoubleFunction)} and {@link #max(ObservableList, ToDoubleFunction)},
+ * of the values extracted from the elements of an {@link ObservableList}. The value is NaN when the list is empty.
+ * <p>
+ * The values are kept in an indexed binary heap, each element of the list has a node which knows its position in the heap.
+ * So, the binding is updated by processing the {@link ListChangeListener.Change}s: additions, removals and updates
+ * cost O(log n) for each changed element in the heap, even when the removed element is the current extreme,
+ * no rescan is needed. The nodes are also kept in a list, in the same order as the elements, so each addition or removal
+ * sub-change also shifts the following nodes of that list, which is O(n) per sub-change, like the shift of the
+ * source list itself. Updates don't shift anything.
+ * To react to changes of the elements, the list must be created with an extractor, so that it fires updates.
+ * <p>
+ * Values are compared with {@link Double#compare(double, double)}, so NaN is considered greater than any other value.
+ */
+public class MinMaxBinding<T> extends DoubleBinding {
+	private final ObservableList<T> boundList;
+	private final ToDoubleFunction<? super T> extractor;
+	private final boolean max;
+	private final ListChangeListener<T> changeListener;
+	private final List<Node> nodes = new ArrayList<>();
+	private Node[] heap = new Node[16];
+	private int size = 0;
+
+	/**
+	 * @param max true to compute the maximum, false for the minimum
+	 */
+	public MinMaxBinding(ObservableList<T> boundList, ToDoubleFunction<? super T> extractor, boolean max) {
+		this.boundList = boundList;
+		this.extractor = extractor;
+		this.max = max;
+		this.changeListener = this::onChanged;
+		this.boundList.addListener(changeListener);
+		insert(0, boundList.size());
+	}
+
+	public static <T> MinMaxBinding<T> min(ObservableList<T> boundList, ToDoubleFunction<? super T> extractor) {
+		return new MinMaxBinding<>(boundList, extractor, false);
+	}
+
+	public static <T> MinMaxBinding<T> max(ObservableList<T> boundList, ToDoubleFunction<? super T> extractor) {
+		return new MinMaxBinding<>(boundList, extractor, true);
+	}
+
+	public boolean isMax() {
+		return max;
+	}
+
+	@Override
+	protected double computeValue() {
+		return (size == 0) ? Double.NaN : heap[0].value;
+	}
+
+	@Override
+	public void dispose() {
+		boundList.removeListener(changeListener);
+		super.dispose();
+	}
+
+	private void onChanged(ListChangeListener.Change<? extends T> c) {
+		while (c.next()) {
+			int from = c.getFrom();
+			int to = c.getTo();
+			if (c.wasPermutated()) {
+				List<Node> moved = new ArrayList<>(nodes.subList(from, to));
+				for (int i = from; i < to; i++) {
+					nodes.set(c.getPermutation(i), moved.get(i - from));
+				}
+			} else if (c.wasUpdated()) {
+				for (int i = from; i < to; i++) {
+					Node node = nodes.get(i);
+					node.value = extractor.applyAsDouble(boundList.get(i));
+					siftDown(siftUp(node.index));
+				}
+			} else {
+				List<Node> removed = nodes.subList(from, from + c.getRemovedSize());
+				for (Node node : removed) {
+					removeFromHeap(node);
+				}
+				removed.clear();
+				insert(from, to);
+			}
+		}
+		invalidate();
+	}
+
+	/**
+	 * Creates the nodes of the elements in the range [from, to), if they are more than the nodes already
+	 * in the heap, the heap is rebuilt in O(n) rather than adding them one by one.
+	 */
+	private void insert(int from, int to) {
+		int count = to - from;
+		if (count == 0) return;
+		List<Node> added = new ArrayList<>(count);
+		for (int i = from; i < to; i++) {
+			added.add(new Node(extractor.applyAsDouble(boundList.get(i))));
+		}
+		nodes.addAll(from, added);
+
+		if (size + count > heap.length) heap = Arrays.copyOf(heap, Math.max(heap.length * 2, size + count));
+		if (count > size) {
+			for (Node node : added) {
+				node.index = size;
+				heap[size++] = node;
+			}
+			for (int i = (size >>> 1) - 1; i >= 0; i--) {
+				siftDown(i);
+			}
+		} else {
+			for (Node node : added) {
+				node.index = size;
+				heap[size++] = node;
+				siftUp(node.index);
+			}
+		}
+	}
+
+	private void removeFromHeap(Node node) {
+		int index = node.index;
+		Node last = heap[--size];
+		heap[size] = null;
+		if (last != node) {
+			heap[index] = last;
+			last.index = index;
+			siftDown(siftUp(index));
+		}
+	}
+
+	/**
+	 * @return whether the first node should be above the second one in the heap
+	 */
+	private boolean precedes(Node n1, Node n2) {
+		int res = Double.compare(n1.value, n2.value);
+		return max ? res > 0 : res < 0;
+	}
+
+	/**
+	 * @return the new index of the node that was at the given index
+	 */
+	private int siftUp(int index) {
+		Node node = heap[index];
+		while (index > 0) {
+			int parent = (index - 1) >>> 1;
+			if (!precedes(node, heap[parent])) break;
+			heap[index] = heap[parent];
+			heap[index].index = index;
+			index = parent;
+		}
+		heap[index] = node;
+		node.index = index;
+		return index;
+	}
+
+	private void siftDown(int index) {
+		Node node = heap[index];
+		int half = size >>> 1;
+		while (index < half) {
+			int child = (index << 1) + 1;
+			int right = child + 1;
+			if (right < size && precedes(heap[right], heap[child])) child = right;
+			if (!precedes(heap[child], node)) break;
+			heap[index] = heap[child];
+			heap[index].index = index;
+			index = child;
+		}
+		heap[index] = node;
+		node.index = index;
+	}
+
+	/**
+	 * The value of an element of the list and its index in the heap.
+	 */
+	private static class Node {
+		private double value;
+		private int index;
+
+		Node(double value) {
+			this.value = value;
+		}
+	}
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright (C) 2022 Parisi Alessandro
+ * This file is part of MFXCore (https://github.com/palexdev/MFXCore).
+ *
+ * MFXCore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MFXCore is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MFXCore.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.palexdev.mfxcore.collections;
+
+import javafx.animation.AnimationTimer;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.TransformationList;
+
+import java.util.*;
+
+/**
+ * A {@code ChangeAggregator} is a view over an {@link ObservableList} with the same elements, in the same order,
+ * which accumulates all the changes made to the source during a JavaFX pulse and fires them as a single
+ * normalized {@link ListChangeListener.Change} at the next pulse.
+ * <p>
+ * This is useful for sources which are updated at a high frequency, for example with thousands of {@code set} calls
+ * per second. Listeners of this list (a {@link TransformableList} wrapping it, a virtualized control)
+ * are notified at most once per frame, with a change that only describes the net difference between the list before
+ * and after the pulse: elements added and then removed are never reported, an element replaced many times is reported
+ * as a single replacement, and so on.
+ * <p></p>
+ * To do so, while accumulating, the list keeps the origin of each element, that is its index before the first change
+ * of the pulse, or -1 for elements added during the pulse.
+ * <p>
+ * Until the accumulated change is fired, {@link #get(int)} and {@link #size()} reflect the state of the list
+ * as last published to the listeners, not the current state of the source. This way, listeners and views built on top
+ * of this list, which only know about the changes fired so far, never read indexes that are out of sync.
+ * The old state is rebuilt from the origins and the removed elements on the first read after a change,
+ * in O(n), and then reused until the end of the pulse. Once the change is fired, the list reads the source again.
+ * <p>
+ * The source must be modified on the JavaFX thread. {@link #flush()} allows to fire the accumulated change
+ * immediately, without waiting for the next pulse.
+ *
+ * @param <E> the elements' type
+ */
+public class ChangeAggregator<E> extends TransformationList<E, E> {
+	//================================================================================
+	// Properties
+	//================================================================================
+	private boolean accumulating = false;
+	private int oldSize;
+	private int[] origins = new int[0];
+	private boolean[] updated = new boolean[0];
+	private int size;
+	private final Map<Integer, E> removed = new HashMap<>();
+	private Object[] published;
+	private int[] positions;
+
+	private final AnimationTimer pulse = new AnimationTimer() {
+		@Override
+		public void handle(long now) {
+			flush();
+		}
+	};
+
+	//================================================================================
+	// Constructors
+	//================================================================================
+	public ChangeAggregator(ObservableList<? extends E> source) {
+		super(source);
+	}
+
+	//================================================================================
+	// Methods
+	//================================================================================
+
+	/**
+	 * Fires the change accumulated since the last pulse, if any.
+	 */
+	public void flush() {
+		pulse.stop();
+		if (!accumulating) return;
+		IterableChange<E> change = IterableChange.diff(this, oldSize, removed::get, origins, updated, size);
+		accumulating = false;
+		removed.clear();
+		published = null;
+		positions = null;
+		if (!change.isEmpty()) fireChange(change);
+	}
+
+	/**
+	 * @return whether changes of the source are being accumulated and not yet fired
+	 */
+	public boolean isAccumulating() {
+		return accumulating;
+	}
+
+	/**
+	 * Starts accumulating changes. The size of the list before the given change is computed from the change itself,
+	 * and each element is given its index as origin.
+	 */
+	private void startAccumulating(ListChangeListener.Change<? extends E> c) {
+		int delta = 0;
+		while (c.next()) {
+			if (!c.wasPermutated() && !c.wasUpdated()) {
+				delta += c.getAddedSize() - c.getRemovedSize();
+			}
+		}
+		c.reset();
+
+		oldSize = getSource().size() - delta;
+		size = oldSize;
+		ensureCapacity(oldSize);
+		for (int i = 0; i < oldSize; i++) {
+			origins[i] = i;
+			updated[i] = false;
+		}
+		accumulating = true;
+		pulse.start();
+	}
+
+	/**
+	 * @return the elements of the list as last published to the listeners, before the accumulated change
+	 */
+	private Object[] published() {
+		if (published == null) {
+			Object[] elements = new Object[oldSize];
+			List<? extends E> source = getSource();
+			for (int i = 0; i < size; i++) {
+				if (origins[i] >= 0) elements[origins[i]] = source.get(i);
+			}
+			removed.forEach((origin, e) -> elements[origin] = e);
+			published = elements;
+		}
+		return published;
+	}
+
+	/**
+	 * @return for each element as last published to the listeners, its current index in the source, or -1 if it was removed
+	 */
+	private int[] positions() {
+		if (positions == null) {
+			int[] positions = new int[oldSize];
+			Arrays.fill(positions, -1);
+			for (int i = 0; i < size; i++) {
+				if (origins[i] >= 0) positions[origins[i]] = i;
+			}
+			this.positions = positions;
+		}
+		return positions;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity > origins.length) {
+			int newCapacity = Math.max(capacity, origins.length + (origins.length >> 1));
+			origins = Arrays.copyOf(origins, newCapacity);
+			updated = Arrays.copyOf(updated, newCapacity);
+		}
+	}
+
+	//================================================================================
+	// Overridden Methods
+	//================================================================================
+
+	/**
+	 * Updates the origins of the elements for each sub-change of the source.
+	 * If no change was being accumulated, starts accumulating, the change will be fired on the next pulse.
+	 */
+	@Override
+	protected void sourceChanged(ListChangeListener.Change<? extends E> c) {
+		if (!accumulating) startAccumulating(c);
+		positions = null;
+
+		while (c.next()) {
+			int from = c.getFrom();
+			int to = c.getTo();
+			if (c.wasPermutated()) {
+				int[] oldOrigins = Arrays.copyOfRange(origins, from, to);
+				boolean[] oldUpdated = Arrays.copyOfRange(updated, from, to);
+				for (int i = from; i < to; i++) {
+					int newIndex = c.getPermutation(i);
+					origins[newIndex] = oldOrigins[i - from];
+					updated[newIndex] = oldUpdated[i - from];
+				}
+			} else if (c.wasUpdated()) {
+				Arrays.fill(updated, from, to, true);
+			} else {
+				List<? extends E> removedList = c.getRemoved();
+				int removedSize = removedList.size();
+				for (int i = 0; i < removedSize; i++) {
+					int origin = origins[from + i];
+					if (origin >= 0) removed.put(origin, removedList.get(i));
+				}
+				int addedSize = to - from;
+				int delta = addedSize - removedSize;
+				ensureCapacity(size + delta);
+				System.arraycopy(origins, from + removedSize, origins, to, size - from - removedSize);
+				System.arraycopy(updated, from + removedSize, updated, to, size - from - removedSize);
+				Arrays.fill(origins, from, to, -1);
+				Arrays.fill(updated, from, to, false);
+				size += delta;
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p></p>
+	 * While accumulating, returns the current index in the source of the given element, or -1 if it was removed.
+	 */
+	@Override
+	public int getSourceIndex(int index) {
+		if (!accumulating) return index;
+		Objects.checkIndex(index, oldSize);
+		return positions()[index];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p></p>
+	 * While accumulating, returns the index the given element of the source had before the accumulated change,
+	 * or -1 if it was added during the pulse.
+	 */
+	@Override
+	public int getViewIndex(int index) {
+		if (!accumulating) return index;
+		Objects.checkIndex(index, size);
+		return origins[index];
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E get(int index) {
+		if (!accumulating) return getSource().get(index);
+		Objects.checkIndex(index, oldSize);
+		return (E) published()[index];
+	}
+
+	@Override
+	public int size() {
+		return accumulating ? oldSize : getSource().size();
+	}
+}
@@ -18,25 +18,46 @@
 
 package io.github.palexdev.mfxcore.collections;
 
-import java.util.LinkedList;
+import java.io.Serializable;
+import java.util.*;
 
 /**
  * This is the implementation of a circular FIFO queue.
  * When the maximum size is reached the oldest element is removed and replaced
  * by the new one.
+ * <p></p>
+ * Elements are stored in a contiguous array used as a ring buffer, which means that adding an element,
+ * evicting the oldest one and accessing an element by its index are all O(1) operations, and no allocation
+ * is needed per element. The array grows as needed up to the maximum size.
+ * <p>
+ * Index 0 is the oldest element, the head of the queue, while {@code size() - 1} is the newest one.
+ * <p>
+ * The queue is also a {@link Deque}, like the {@link LinkedList} it used to extend. Elements added at the head,
+ * see {@link #addFirst(Object)}, evict the newest element when the queue is full, so that the maximum size is respected
+ * at both ends.
+ * <p></p>
+ * For primitive values see also {@link DoubleCircularQueue} and {@link LongCircularQueue}.
  */
-public class CircularQueue<E> extends LinkedList<E> {
+public class CircularQueue<E> extends AbstractList<E> implements Deque<E>, RandomAccess, Cloneable, Serializable {
 	//================================================================================
 	// Properties
 	//================================================================================
+	private static final long serialVersionUID = 1L;
+	private static final int INITIAL_CAPACITY = 16;
+	private Object[] elements;
+	private int head = 0;
+	private int count = 0;
 	private int size;
 
 	//================================================================================
 	// Constructors
 	//================================================================================
 	public CircularQueue(int size) {
-		super();
+		if (size <= 0) {
+			throw new IllegalArgumentException("Size must be greater than 0!");
+		}
 		this.size = size;
+		this.elements = new Object[Math.min(size, INITIAL_CAPACITY)];
 	}
 
 	//================================================================================
@@ -46,23 +67,92 @@ public class CircularQueue<E> extends LinkedList<E> {
 	/**
 	 * Sets the maximum size of the queue and removes exceeding elements
 	 * if the specified size is lesser than the number of elements.
+	 * The oldest elements are removed all at once.
 	 *
 	 * @param size The new desired size
-	 * @throws IllegalArgumentException if the desired size is 0
+	 * @throws IllegalArgumentException if the desired size is 0 or negative
 	 */
 	public void setSize(int size) {
-		if (size == 0) {
-			throw new IllegalArgumentException("Size cannot be 0!");
+		if (size <= 0) {
+			throw new IllegalArgumentException("Size must be greater than 0!");
 		}
 
-		if (size < super.size()) {
-			for (int i = 0; i < (super.size() - size); i++) {
-				super.remove();
+		if (size < count) {
+			int exceeding = count - size;
+			for (int i = 0; i < exceeding; i++) {
+				elements[physicalIndex(i)] = null;
 			}
+			head = physicalIndex(exceeding);
+			count = size;
+			modCount++;
+		}
+		if (elements.length > size) {
+			resize(size);
 		}
 		this.size = size;
 	}
 
+	/**
+	 * @return the maximum number of elements the queue can hold
+	 */
+	public int getMaxSize() {
+		return size;
+	}
+
+	/**
+	 * @return the oldest element in the queue
+	 * @throws NoSuchElementException if the queue is empty
+	 */
+	@Override
+	public E getFirst() {
+		if (count == 0) throw new NoSuchElementException();
+		return elementAt(head);
+	}
+
+	/**
+	 * @return the newest element in the queue
+	 * @throws NoSuchElementException if the queue is empty
+	 */
+	@Override
+	public E getLast() {
+		if (count == 0) throw new NoSuchElementException();
+		return elementAt(physicalIndex(count - 1));
+	}
+
+	/**
+	 * Converts the given logical index, where 0 is the head of the queue, to the index in the array.
+	 */
+	private int physicalIndex(int index) {
+		int i = head + index;
+		return (i >= elements.length) ? i - elements.length : i;
+	}
+
+	@SuppressWarnings("unchecked")
+	private E elementAt(int physicalIndex) {
+		return (E) elements[physicalIndex];
+	}
+
+	/**
+	 * Grows the array, if it's full and the maximum size has not been reached yet.
+	 */
+	private void ensureCapacity() {
+		if (count == elements.length && count < size) {
+			resize((int) Math.min(size, Math.max(INITIAL_CAPACITY, elements.length * 2L)));
+		}
+	}
+
+	/**
+	 * Copies the elements in a new array of the given capacity, with the head at index 0.
+	 */
+	private void resize(int capacity) {
+		Object[] newElements = new Object[capacity];
+		int firstChunk = Math.min(count, elements.length - head);
+		System.arraycopy(elements, head, newElements, 0, firstChunk);
+		System.arraycopy(elements, 0, newElements, firstChunk, count - firstChunk);
+		elements = newElements;
+		head = 0;
+	}
+
 	//================================================================================
 	// Override Methods
 	//================================================================================
@@ -75,9 +165,272 @@ public class CircularQueue<E> extends LinkedList<E> {
 	 */
 	@Override
 	public boolean add(E e) {
-		if (super.size() == this.size) {
-			super.remove();
+		if (count == size) {
+			elements[head] = e;
+			head = physicalIndex(1);
+			modCount++;
+			return true;
+		}
+
+		ensureCapacity();
+		elements[physicalIndex(count)] = e;
+		count++;
+		modCount++;
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p></p>
+	 * The elements from the given index are shifted forward by one. If the queue is full, the oldest element is removed,
+	 * so inserting at index 0 a full queue leaves it unchanged.
+	 */
+	@Override
+	public void add(int index, E element) {
+		Objects.checkIndex(index, count + 1);
+		if (index == count) {
+			add(element);
+			return;
+		}
+		if (count == size) {
+			if (index == 0) return;
+			poll();
+			index--;
+		}
+		ensureCapacity();
+		for (int i = count; i > index; i--) {
+			elements[physicalIndex(i)] = elements[physicalIndex(i - 1)];
+		}
+		elements[physicalIndex(index)] = element;
+		count++;
+		modCount++;
+	}
+
+	/**
+	 * Adds the given element at the head of the queue, as the oldest one. If the queue is full,
+	 * the newest element is removed.
+	 */
+	@Override
+	public void addFirst(E e) {
+		if (count == size) {
+			elements[physicalIndex(count - 1)] = null;
+			count--;
+		}
+		ensureCapacity();
+		head = (head == 0) ? elements.length - 1 : head - 1;
+		elements[head] = e;
+		count++;
+		modCount++;
+	}
+
+	/**
+	 * Same as {@link #add(Object)}.
+	 */
+	@Override
+	public void addLast(E e) {
+		add(e);
+	}
+
+	@Override
+	public boolean offerFirst(E e) {
+		addFirst(e);
+		return true;
+	}
+
+	@Override
+	public boolean offerLast(E e) {
+		return add(e);
+	}
+
+	@Override
+	public E removeFirst() {
+		return remove();
+	}
+
+	@Override
+	public E removeLast() {
+		if (count == 0) throw new NoSuchElementException();
+		return pollLast();
+	}
+
+	@Override
+	public E pollFirst() {
+		return poll();
+	}
+
+	@Override
+	public E pollLast() {
+		if (count == 0) return null;
+		int i = physicalIndex(count - 1);
+		E e = elementAt(i);
+		elements[i] = null;
+		count--;
+		modCount++;
+		return e;
+	}
+
+	@Override
+	public E peekFirst() {
+		return peek();
+	}
+
+	@Override
+	public E peekLast() {
+		return (count == 0) ? null : elementAt(physicalIndex(count - 1));
+	}
+
+	@Override
+	public boolean removeFirstOccurrence(Object o) {
+		int index = indexOf(o);
+		if (index < 0) return false;
+		remove(index);
+		return true;
+	}
+
+	@Override
+	public boolean removeLastOccurrence(Object o) {
+		int index = lastIndexOf(o);
+		if (index < 0) return false;
+		remove(index);
+		return true;
+	}
+
+	/**
+	 * Same as {@link #addFirst(Object)}.
+	 */
+	@Override
+	public void push(E e) {
+		addFirst(e);
+	}
+
+	@Override
+	public E pop() {
+		return removeFirst();
+	}
+
+	/**
+	 * @return an iterator over the elements from the newest to the oldest
+	 */
+	@Override
+	public Iterator<E> descendingIterator() {
+		return new Iterator<>() {
+			private final ListIterator<E> it = listIterator(count);
+
+			@Override
+			public boolean hasNext() {
+				return it.hasPrevious();
+			}
+
+			@Override
+			public E next() {
+				return it.previous();
+			}
+
+			@Override
+			public void remove() {
+				it.remove();
+			}
+		};
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p></p>
+	 * Same as {@link #add(Object)}, this never fails.
+	 */
+	@Override
+	public boolean offer(E e) {
+		return add(e);
+	}
+
+	@Override
+	public E remove() {
+		if (count == 0) throw new NoSuchElementException();
+		return poll();
+	}
+
+	@Override
+	public E poll() {
+		if (count == 0) return null;
+		E e = elementAt(head);
+		elements[head] = null;
+		head = physicalIndex(1);
+		count--;
+		modCount++;
+		return e;
+	}
+
+	@Override
+	public E element() {
+		return getFirst();
+	}
+
+	@Override
+	public E peek() {
+		return (count == 0) ? null : elementAt(head);
+	}
+
+	@Override
+	public E get(int index) {
+		Objects.checkIndex(index, count);
+		return elementAt(physicalIndex(index));
+	}
+
+	@Override
+	public E set(int index, E element) {
+		Objects.checkIndex(index, count);
+		int i = physicalIndex(index);
+		E old = elementAt(i);
+		elements[i] = element;
+		return old;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p></p>
+	 * The elements after the given index are shifted back by one.
+	 */
+	@Override
+	public E remove(int index) {
+		Objects.checkIndex(index, count);
+		E old = elementAt(physicalIndex(index));
+		for (int i = index; i < count - 1; i++) {
+			elements[physicalIndex(i)] = elements[physicalIndex(i + 1)];
+		}
+		elements[physicalIndex(count - 1)] = null;
+		count--;
+		modCount++;
+		return old;
+	}
+
+	@Override
+	public int size() {
+		return count;
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i < count; i++) {
+			elements[physicalIndex(i)] = null;
+		}
+		head = 0;
+		count = 0;
+		modCount++;
+	}
+
+	/**
+	 * @return a shallow copy of this queue, with the same maximum size
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public CircularQueue<E> clone() {
+		try {
+			CircularQueue<E> clone = (CircularQueue<E>) super.clone();
+			clone.elements = elements.clone();
+			clone.modCount = 0;
+			return clone;
+		} catch (CloneNotSupportedException ex) {
+			throw new InternalError(ex);
 		}
-		return super.add(e);
 	}
 }
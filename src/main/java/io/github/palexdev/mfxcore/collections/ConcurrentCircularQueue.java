@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2022 Parisi Alessandro
+ * This file is part of MFXCore (https://github.com/palexdev/MFXCore).
+ *
+ * MFXCore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MFXCore is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MFXCore.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.palexdev.mfxcore.collections;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, lock-free, multi-producer/single-consumer version of the {@link CircularQueue}.
+ * <p>
+ * Any number of threads can add elements concurrently, see {@link #offer(Object)}. When the queue is full the oldest
+ * elements are overwritten by the new ones, producers never block and never wait for the consumer.
+ * <p>
+ * Elements are consumed by a single thread, typically the JavaFX thread, which at every pulse can move everything
+ * accumulated since the last time in one call, see {@link #drainTo(Consumer)}. Elements that were overwritten before
+ * being consumed are counted, see {@link #getDropped()}.
+ * <p></p>
+ * Every offer claims a sequence number, which identifies the slot of the ring and the "lap" of the element.
+ * Elements are stored in the slots together with their sequence number, this way the consumer can tell whether a
+ * slot contains the expected element, one that has not been published yet, or one that has already replaced it.
+ * <p></p>
+ * Null elements are not allowed.
+ */
+public class ConcurrentCircularQueue<E> {
+	//================================================================================
+	// Properties
+	//================================================================================
+	private final int size;
+	private final AtomicReferenceArray<Slot<E>> slots;
+	private final AtomicLong writeSequence = new AtomicLong();
+	private long readSequence = 0;
+	private long dropped = 0;
+
+	//================================================================================
+	// Constructors
+	//================================================================================
+	public ConcurrentCircularQueue(int size) {
+		if (size <= 0) {
+			throw new IllegalArgumentException("Size must be greater than 0!");
+		}
+		this.size = size;
+		this.slots = new AtomicReferenceArray<>(size);
+	}
+
+	//================================================================================
+	// Methods
+	//================================================================================
+
+	/**
+	 * Adds the given element to the queue, overwriting the oldest one if the queue is full.
+	 * <p>
+	 * This can be called by any thread, and always succeeds.
+	 *
+	 * @return always true
+	 * @throws NullPointerException if the element is null
+	 */
+	public boolean offer(E e) {
+		Objects.requireNonNull(e);
+		long sequence = writeSequence.getAndIncrement();
+		Slot<E> slot = new Slot<>(sequence, e);
+		int index = slotIndex(sequence);
+		for (; ; ) {
+			Slot<E> current = slots.get(index);
+			if (current != null && current.sequence > sequence) return true; // Already overwritten by a newer element
+			if (slots.compareAndSet(index, current, slot)) return true;
+		}
+	}
+
+	/**
+	 * Moves all the elements accumulated since the last call to the given consumer, from the oldest to the newest.
+	 * <p>
+	 * Elements that are still being added by a producer at the time of the call are left for the next one.
+	 * <p></p>
+	 * <b>Must be called by the consumer thread only.</b>
+	 *
+	 * @return the number of consumed elements
+	 */
+	public int drainTo(Consumer<? super E> consumer) {
+		long end = writeSequence.get();
+		long sequence = readSequence;
+		if (end - sequence > size) {
+			dropped += end - size - sequence;
+			sequence = end - size;
+		}
+
+		int n = 0;
+		for (; sequence < end; sequence++) {
+			int index = slotIndex(sequence);
+			Slot<E> slot = slots.get(index);
+			if (slot == null || slot.sequence < sequence) break; // Not published yet
+			if (slot.sequence > sequence) {
+				dropped++;
+				continue;
+			}
+			slots.compareAndSet(index, slot, null);
+			consumer.accept(slot.element);
+			n++;
+		}
+		readSequence = sequence;
+		return n;
+	}
+
+	/**
+	 * Convenience method to drain the elements to the given collection.
+	 * <p></p>
+	 * <b>Must be called by the consumer thread only.</b>
+	 *
+	 * @return the number of consumed elements
+	 * @see #drainTo(Consumer)
+	 */
+	public int drainTo(Collection<? super E> collection) {
+		return drainTo((Consumer<E>) collection::add);
+	}
+
+	/**
+	 * Removes and returns the oldest available element, or null if there's none.
+	 * <p></p>
+	 * <b>Must be called by the consumer thread only.</b>
+	 */
+	public E poll() {
+		long end = writeSequence.get();
+		if (end - readSequence > size) {
+			dropped += end - size - readSequence;
+			readSequence = end - size;
+		}
+		while (readSequence < end) {
+			int index = slotIndex(readSequence);
+			Slot<E> slot = slots.get(index);
+			if (slot == null || slot.sequence < readSequence) return null; // Not published yet
+			if (slot.sequence > readSequence++) {
+				dropped++;
+				continue;
+			}
+			slots.compareAndSet(index, slot, null);
+			return slot.element;
+		}
+		return null;
+	}
+
+	/**
+	 * @return an estimate of the number of elements waiting to be consumed. The value is accurate
+	 * only if called by the consumer thread and no producer is adding elements
+	 */
+	public int size() {
+		return (int) Math.min(size, writeSequence.get() - readSequence);
+	}
+
+	/**
+	 * @see #size()
+	 */
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * @return the maximum number of elements the queue can hold
+	 */
+	public int getMaxSize() {
+		return size;
+	}
+
+	/**
+	 * @return the number of elements that have been overwritten before being consumed, as
+	 * seen by the consumer thread
+	 */
+	public long getDropped() {
+		return dropped;
+	}
+
+	private int slotIndex(long sequence) {
+		return (int) (sequence % size);
+	}
+
+	//================================================================================
+	// Internal Classes
+	//================================================================================
+
+	/**
+	 * Immutable pair of an element and its sequence number.
+	 */
+	private static class Slot<E> {
+		private final long sequence;
+		private final E element;
+
+		Slot(long sequence, E element) {
+			this.sequence = sequence;
+			this.element = element;
+		}
+	}
+}
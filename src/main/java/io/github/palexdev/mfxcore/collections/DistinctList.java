@@ -0,0 +1,375 @@
+/*
+ * Copyright (C) 2022 Parisi Alessandro
+ * This file is part of MFXCore (https://github.com/palexdev/MFXCore).
+ *
+ * MFXCore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MFXCore is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MFXCore.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.palexdev.mfxcore.collections;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.TransformationList;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * A {@code DistinctList} is a view over another {@link ObservableList} which shows only one element for each key,
+ * computed by the given key function. By default, the key is the element itself.
+ * <p>
+ * Distinct elements are shown in the order their keys first appeared in the source, and each one is represented by
+ * one of its instances in the source. When the representative is removed, another instance of the same key takes its
+ * place, and the list notifies a replacement.
+ * <p>
+ * The number of instances of each key, see {@link #getCount(int)} and {@link #getCount(Object)}, is maintained
+ * incrementally: adding or removing an element only updates the entry of its key, in O(1) amortized.
+ * When the count of a distinct element changes, but not the element itself, the list notifies an update, so that
+ * badges and such can be refreshed.
+ * <p></p>
+ * Note that elements are mapped to their keys only when added, or when the source notifies an update, so keys
+ * of mutable elements should be backed by an extractor, as for the other transformations.
+ *
+ * @param <T> the elements' type
+ * @param <K> the keys' type
+ */
+public class DistinctList<T, K> extends TransformationList<T, T> {
+	//================================================================================
+	// Properties
+	//================================================================================
+	private final Function<? super T, ? extends K> keyFunction;
+	private final Map<K, Entry<T, K>> entries = new HashMap<>();
+	private final List<Entry<T, K>> distinct = new ArrayList<>();
+	private final List<Instance<T, K>> instances = new ArrayList<>();
+
+	private final List<Entry<T, K>> touched = new ArrayList<>();
+	private long serial = 0;
+	private long lastSerial = 0;
+
+	//================================================================================
+	// Constructors
+	//================================================================================
+	@SuppressWarnings("unchecked")
+	public DistinctList(ObservableList<? extends T> source) {
+		this(source, t -> (K) t);
+	}
+
+	public DistinctList(ObservableList<? extends T> source, Function<? super T, ? extends K> keyFunction) {
+		super(source);
+		this.keyFunction = Objects.requireNonNull(keyFunction);
+		for (T t : source) {
+			Instance<T, K> instance = new Instance<>(t);
+			instances.add(instance);
+			add(instance);
+		}
+		lastSerial = serial;
+	}
+
+	//================================================================================
+	// Methods
+	//================================================================================
+
+	/**
+	 * @return the number of instances in the source of the element at the given index
+	 */
+	public int getCount(int index) {
+		return distinct.get(index).instances.size();
+	}
+
+	/**
+	 * @return the number of instances in the source with the given key, 0 if there are none
+	 */
+	public int getCount(K key) {
+		Entry<T, K> entry = entries.get(key);
+		return (entry != null) ? entry.instances.size() : 0;
+	}
+
+	/**
+	 * @return the key of the element at the given index
+	 */
+	public K getKey(int index) {
+		return distinct.get(index).key;
+	}
+
+	/**
+	 * Adds the given instance to the entry of its key, the entry is created if it doesn't exist.
+	 */
+	private void add(Instance<T, K> instance) {
+		K key = keyFunction.apply(instance.item);
+		Entry<T, K> entry = entries.get(key);
+		if (entry == null) {
+			entry = new Entry<>(key, ++serial);
+			entries.put(key, entry);
+			distinct.add(entry);
+		}
+		touch(entry);
+		instance.entry = entry;
+		instance.slot = entry.instances.size();
+		entry.instances.add(instance);
+	}
+
+	/**
+	 * Removes the given instance from its entry, by swapping it with the last one. If the entry becomes empty,
+	 * it's removed at the end of the change, see {@link #commit()}, so that it can be reused if the key is added back.
+	 */
+	private void remove(Instance<T, K> instance) {
+		Entry<T, K> entry = instance.entry;
+		touch(entry);
+		List<Instance<T, K>> entryInstances = entry.instances;
+		Instance<T, K> last = entryInstances.remove(entryInstances.size() - 1);
+		if (last != instance) {
+			entryInstances.set(instance.slot, last);
+			last.slot = instance.slot;
+		}
+		instance.entry = null;
+	}
+
+	/**
+	 * Saves the state of the given entry before it changes, unless it was created by the current change.
+	 */
+	private void touch(Entry<T, K> entry) {
+		if (entry.touched || entry.serial > lastSerial) return;
+		entry.touched = true;
+		entry.oldRepresentative = entry.instances.get(0).item;
+		entry.oldCount = entry.instances.size();
+		touched.add(entry);
+	}
+
+	/**
+	 * @return the index of the given entry, which is still in the list, by binary search
+	 */
+	private int indexOf(Entry<T, K> entry) {
+		int low = 0;
+		int high = distinct.size() - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			long midSerial = distinct.get(mid).serial;
+			if (midSerial < entry.serial) {
+				low = mid + 1;
+			} else if (midSerial > entry.serial) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Compares the touched entries with their saved state to build the change, then removes the empty entries.
+	 * <p>
+	 * Entries created by the change are always at the end of the list. Touched entries which became empty are removed,
+	 * the ones that have a new representative are replaced, and the ones that only changed count, or whose
+	 * representative was updated, are updated. Contiguous removals, replacements and additions become a single sub-change.
+	 */
+	private IterableChange<T> commit() {
+		IterableChange<T> change = new IterableChange<>(this);
+		touched.sort(Comparator.comparingLong(e -> e.serial));
+		int created = (int) (serial - lastSerial);
+		int[] oldIndexes = new int[touched.size()];
+		for (int i = 0; i < touched.size(); i++) {
+			oldIndexes[i] = indexOf(touched.get(i));
+		}
+
+		int shift = 0;
+		int runFrom = -1;
+		int runTo = -1;
+		List<T> runRemoved = null;
+		for (int i = 0; i < touched.size(); i++) {
+			Entry<T, K> entry = touched.get(i);
+			boolean empty = entry.instances.isEmpty();
+			boolean replaced = !empty && entry.instances.get(0).item != entry.oldRepresentative;
+			int at = oldIndexes[i] + shift;
+			if (empty || replaced) {
+				if (runRemoved == null || at != runTo) {
+					flush(change, runFrom, runTo, runRemoved);
+					runFrom = at;
+					runTo = at;
+					runRemoved = new ArrayList<>();
+				}
+				runRemoved.add(entry.oldRepresentative);
+				if (replaced) runTo++;
+				if (empty) shift--;
+			} else if (entry.updated || entry.instances.size() != entry.oldCount) {
+				flush(change, runFrom, runTo, runRemoved);
+				runRemoved = null;
+				change.addUpdate(at, at + 1);
+			}
+		}
+		if (created > 0) {
+			int addFrom = distinct.size() - created + shift;
+			if (runRemoved == null || addFrom != runTo) {
+				flush(change, runFrom, runTo, runRemoved);
+				runFrom = addFrom;
+				runTo = addFrom;
+				runRemoved = new ArrayList<>();
+			}
+			runTo += created;
+		}
+		flush(change, runFrom, runTo, runRemoved);
+
+		for (int i = touched.size() - 1; i >= 0; i--) {
+			Entry<T, K> entry = touched.get(i);
+			entry.touched = false;
+			entry.updated = false;
+			entry.oldRepresentative = null;
+			if (entry.instances.isEmpty()) {
+				distinct.remove(oldIndexes[i]);
+				entries.remove(entry.key);
+			}
+		}
+		touched.clear();
+		lastSerial = serial;
+		return change;
+	}
+
+	private void flush(IterableChange<T> change, int from, int to, List<T> removed) {
+		if (removed != null) change.addAddRemove(from, to, removed);
+	}
+
+	//================================================================================
+	// Overridden Methods
+	//================================================================================
+
+	/**
+	 * Each sub-change of the source is notified as a separate change, see {@link #commit()}.
+	 * <p>
+	 * Permutations don't change this list, since the order of the distinct elements depends on when their
+	 * keys were added. Updated elements which are still of the same key only cause an update if they are
+	 * the representative of their key.
+	 */
+	@Override
+	protected void sourceChanged(ListChangeListener.Change<? extends T> c) {
+		while (c.next()) {
+			int from = c.getFrom();
+			int to = c.getTo();
+			if (c.wasPermutated()) {
+				List<Instance<T, K>> moved = new ArrayList<>(instances.subList(from, to));
+				for (int i = from; i < to; i++) {
+					instances.set(c.getPermutation(i), moved.get(i - from));
+				}
+				continue;
+			}
+
+			if (c.wasUpdated()) {
+				List<Instance<T, K>> moved = new ArrayList<>();
+				for (int i = from; i < to; i++) {
+					Instance<T, K> instance = instances.get(i);
+					Entry<T, K> entry = instance.entry;
+					if (!Objects.equals(keyFunction.apply(instance.item), entry.key)) {
+						moved.add(instance);
+					} else if (instance.slot == 0) {
+						touch(entry);
+						entry.updated = true;
+					}
+				}
+				moved.forEach(this::remove);
+				moved.forEach(this::add);
+			} else {
+				int removedSize = c.getRemovedSize();
+				for (int i = from; i < from + removedSize; i++) {
+					remove(instances.get(i));
+				}
+				List<Instance<T, K>> added = new ArrayList<>(to - from);
+				for (int i = from; i < to; i++) {
+					added.add(new Instance<>(getSource().get(i)));
+				}
+				if (removedSize == added.size()) {
+					for (int i = from; i < to; i++) {
+						instances.set(i, added.get(i - from));
+					}
+				} else {
+					instances.subList(from, from + removedSize).clear();
+					instances.addAll(from, added);
+				}
+				added.forEach(this::add);
+			}
+
+			IterableChange<T> change = commit();
+			if (!change.isEmpty()) fireChange(change);
+		}
+	}
+
+	@Override
+	public T get(int index) {
+		return distinct.get(index).instances.get(0).item;
+	}
+
+	@Override
+	public int size() {
+		return distinct.size();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p></p>
+	 * Source indexes are not tracked, so this searches the representative in the source, in O(n).
+	 */
+	@Override
+	public int getSourceIndex(int index) {
+		Instance<T, K> representative = distinct.get(index).instances.get(0);
+		for (int i = 0; i < instances.size(); i++) {
+			if (instances.get(i) == representative) return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p></p>
+	 * For duplicates this returns the index of the distinct element of the same key.
+	 */
+	@Override
+	public int getViewIndex(int index) {
+		if (index < 0 || index >= instances.size()) return -1;
+		return indexOf(instances.get(index).entry);
+	}
+
+	//================================================================================
+	// Internal Classes
+	//================================================================================
+
+	/**
+	 * The instances of a key, the first one is the representative.
+	 * Also keeps the state before the current change, see {@link #touch(Entry)}.
+	 */
+	private static class Entry<T, K> {
+		private final K key;
+		private final long serial;
+		private final List<Instance<T, K>> instances = new ArrayList<>(1);
+
+		private boolean touched = false;
+		private boolean updated = false;
+		private T oldRepresentative;
+		private int oldCount;
+
+		Entry(K key, long serial) {
+			this.key = key;
+			this.serial = serial;
+		}
+	}
+
+	/**
+	 * An element of the source, with its entry and its position in the entry's instances.
+	 */
+	private static class Instance<T, K> {
+		private final T item;
+		private Entry<T, K> entry;
+		private int slot;
+
+		Instance(T item) {
+			this.item = item;
+		}
+	}
+}
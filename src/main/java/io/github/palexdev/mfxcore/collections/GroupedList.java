@@ -0,0 +1,768 @@
+/*
+ * Copyright (C) 2022 Parisi Alessandro
+ * This file is part of MFXCore (https://github.com/palexdev/MFXCore).
+ *
+ * MFXCore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MFXCore is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MFXCore.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.palexdev.mfxcore.collections;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.TransformationList;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * A {@code GroupedList} is a view over another {@link ObservableList} which groups its items by a key,
+ * and presents them as a flat list of rows: the header of each group, followed by the group's items.
+ * <p>
+ * Groups are shown in the order they are created, or sorted by their keys if a key comparator is specified.
+ * Items in a group are in source order, or sorted by the given comparator (ties are broken by the source order).
+ * Empty groups are removed.
+ * <p></p>
+ * Rows are persistent objects, see {@link Row}: the header of a group is the {@link Group} itself, which also keeps
+ * the number of items in the group, and each item of the source is wrapped in an {@link Item} which survives
+ * updates of the item, even when the item moves to another group. This allows virtualized controls to reuse their cells.
+ * <p></p>
+ * The grouping is maintained incrementally as the source changes:
+ * <p> - each group keeps its items sorted in an array, the position of an item is found with a binary search in
+ * O(log s), where s is the size of the group, but adding or removing it shifts the following items, which is O(s)
+ * <p> - the number of rows of each group is stored in a Fenwick tree, so the position of a group in the flat list,
+ * or the row at a given position, are found in O(log g), where g is the number of groups
+ * <p> - creating or removing a group costs O(g) instead, because the groups are kept in an array too
+ * (the position of a new group is found with a binary search if the groups are sorted), and the Fenwick tree is rebuilt
+ * <p> - collapsing a group, see {@link #setCollapsed(Object, boolean)}, hides its items without any recomputation
+ * <p></p>
+ * So, the per-item cost is logarithmic only in the number of comparisons, the shifts are linear but cheap array copies.
+ * Additions and removals in the source also shift the source index of the following items, which costs O(n) like the
+ * shift of the source list itself. Updates and replacements don't, so moving an item to another group is cheap.
+ * Note that an updated item is first looked up in its group with a binary search, but if a comparator is set it falls
+ * back to a linear scan, since its position may not be consistent with the comparator anymore.
+ *
+ * @param <T> the items' type
+ * @param <K> the keys' type
+ */
+public class GroupedList<T, K> extends TransformationList<GroupedList.Row<T, K>, T> {
+	//================================================================================
+	// Properties
+	//================================================================================
+	private final Function<? super T, ? extends K> keyFunction;
+	private final Comparator<? super T> comparator;
+	private final Comparator<? super K> groupComparator;
+
+	private final Map<K, Group<T, K>> groups = new HashMap<>();
+	private final List<Group<T, K>> groupOrder = new ArrayList<>();
+	private final List<Item<T, K>> items = new ArrayList<>();
+	private int[] tree = new int[1];
+	private int rows = 0;
+
+	private static final int SMALL_CHANGE = 32;
+	private ChangeRecorder<Row<T, K>> recorder;
+
+	//================================================================================
+	// Constructors
+	//================================================================================
+	public GroupedList(ObservableList<? extends T> source, Function<? super T, ? extends K> keyFunction) {
+		this(source, keyFunction, null);
+	}
+
+	public GroupedList(ObservableList<? extends T> source, Function<? super T, ? extends K> keyFunction, Comparator<? super T> comparator) {
+		this(source, keyFunction, comparator, null);
+	}
+
+	/**
+	 * @param keyFunction     the function that computes the key of the group of each item
+	 * @param comparator      the comparator used to sort the items in each group, null to keep the source order
+	 * @param groupComparator the comparator used to sort the groups by their keys, null to keep the creation order
+	 */
+	public GroupedList(ObservableList<? extends T> source, Function<? super T, ? extends K> keyFunction,
+					   Comparator<? super T> comparator, Comparator<? super K> groupComparator) {
+		super(source);
+		this.keyFunction = Objects.requireNonNull(keyFunction);
+		this.comparator = comparator;
+		this.groupComparator = groupComparator;
+
+		for (int i = 0; i < source.size(); i++) {
+			Item<T, K> item = new Item<>(source.get(i), i);
+			items.add(item);
+			K key = keyFunction.apply(item.item);
+			Group<T, K> group = groups.get(key);
+			if (group == null) {
+				group = new Group<>(key);
+				groups.put(key, group);
+				groupOrder.add(group);
+			}
+			item.group = group;
+			group.items.add(item);
+		}
+		if (groupComparator != null) groupOrder.sort((g1, g2) -> groupComparator.compare(g1.key, g2.key));
+		if (comparator != null) {
+			for (Group<T, K> group : groupOrder) {
+				group.items.sort(this::compare);
+			}
+		}
+		rebuildTree();
+	}
+
+	//================================================================================
+	// Methods
+	//================================================================================
+
+	/**
+	 * @return the groups in the order they are shown, as an unmodifiable list
+	 */
+	public List<Group<T, K>> getGroups() {
+		return Collections.unmodifiableList(groupOrder);
+	}
+
+	/**
+	 * @return the group with the given key, or null if there's no item with such key
+	 */
+	public Group<T, K> getGroup(K key) {
+		return groups.get(key);
+	}
+
+	/**
+	 * Collapses or expands the group with the given key. The items of a collapsed group are hidden,
+	 * only its header is shown.
+	 * <p>
+	 * This is a simple removal/addition of the group's rows, which are not recomputed.
+	 *
+	 * @throws NoSuchElementException if there is no group with the given key
+	 */
+	public void setCollapsed(K key, boolean collapsed) {
+		Group<T, K> group = groups.get(key);
+		if (group == null) throw new NoSuchElementException("No group for key: " + key);
+		if (group.collapsed == collapsed) return;
+
+		int offset = offsetOf(group) + 1;
+		int count = group.items.size();
+		IterableChange<Row<T, K>> change = new IterableChange<>(this);
+		if (collapsed) {
+			updateTree(group.position, -count);
+			group.collapsed = true;
+			change.addAddRemove(offset, offset, new ArrayList<>(group.items));
+		} else {
+			group.collapsed = false;
+			updateTree(group.position, count);
+			change.addAddRemove(offset, offset + count, Collections.emptyList());
+		}
+		fireChange(change);
+	}
+
+	/**
+	 * @return whether the group with the given key is collapsed, false if there is no such group
+	 */
+	public boolean isCollapsed(K key) {
+		Group<T, K> group = groups.get(key);
+		return group != null && group.collapsed;
+	}
+
+	/**
+	 * Compares two items by the comparator, if any, and then by their index in the source.
+	 */
+	private int compare(Item<T, K> i1, Item<T, K> i2) {
+		int res = (comparator != null) ? comparator.compare(i1.item, i2.item) : 0;
+		return (res != 0) ? res : Integer.compare(i1.sourceIndex, i2.sourceIndex);
+	}
+
+	/**
+	 * @return the position at which the given item is, or should be inserted, in the given group
+	 */
+	private int findPosition(Group<T, K> group, Item<T, K> item) {
+		List<Item<T, K>> groupItems = group.items;
+		int low = 0;
+		int high = groupItems.size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (compare(groupItems.get(mid), item) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * @return the position of the given item in its group, see {@link #findPosition(Group, Item)},
+	 * falls back to a linear scan if the item is not where it should be
+	 */
+	private int indexInGroup(Item<T, K> item) {
+		List<Item<T, K>> groupItems = item.group.items;
+		int pos = findPosition(item.group, item);
+		if (pos < groupItems.size() && groupItems.get(pos) == item) return pos;
+		for (int i = 0; i < groupItems.size(); i++) {
+			if (groupItems.get(i) == item) return i;
+		}
+		throw new IllegalStateException("Item not found in its group: " + item.item);
+	}
+
+	/**
+	 * Adds the given item to the group of its key, creating the group if needed, and notifies the added rows.
+	 */
+	private void insertItem(Item<T, K> item) {
+		K key = keyFunction.apply(item.item);
+		Group<T, K> group = groups.get(key);
+		if (group == null) {
+			group = new Group<>(key);
+			groups.put(key, group);
+			groupOrder.add(groupPosition(key), group);
+			rebuildTree();
+			if (recorder != null) recorder.added(offsetOf(group));
+		}
+
+		item.group = group;
+		int pos = findPosition(group, item);
+		group.items.add(pos, item);
+		if (!group.collapsed) {
+			updateTree(group.position, 1);
+			if (recorder != null) recorder.added(offsetOf(group) + 1 + pos);
+		}
+	}
+
+	/**
+	 * @return the position at which a new group with the given key must be inserted: after the groups with a key
+	 * lower or equal to it if a key comparator is set, at the end otherwise
+	 */
+	private int groupPosition(K key) {
+		if (groupComparator == null) return groupOrder.size();
+		int low = 0;
+		int high = groupOrder.size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (groupComparator.compare(groupOrder.get(mid).key, key) <= 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Removes the given item from its group, removing the group too if it becomes empty, and notifies the removed rows.
+	 */
+	private void removeItem(Item<T, K> item) {
+		Group<T, K> group = item.group;
+		int pos = indexInGroup(item);
+		group.items.remove(pos);
+		if (!group.collapsed) {
+			if (recorder != null) recorder.removed(offsetOf(group) + 1 + pos, item);
+			updateTree(group.position, -1);
+		}
+		item.group = null;
+
+		if (group.items.isEmpty()) {
+			if (recorder != null) recorder.removed(offsetOf(group), group);
+			groups.remove(group.key);
+			groupOrder.remove(group.position);
+			rebuildTree();
+		}
+	}
+
+	/**
+	 * @return whether the given item, which was updated, is still in the right group and position
+	 */
+	private boolean isInPlace(Item<T, K> item) {
+		Group<T, K> group = item.group;
+		if (!Objects.equals(keyFunction.apply(item.item), group.key)) return false;
+		if (comparator == null) return true;
+		List<Item<T, K>> groupItems = group.items;
+		int pos = indexInGroup(item);
+		return (pos == 0 || compare(groupItems.get(pos - 1), item) < 0) &&
+				(pos == groupItems.size() - 1 || compare(item, groupItems.get(pos + 1)) < 0);
+	}
+
+	/**
+	 * @return the index in the flat list of the header of the given group
+	 */
+	private int offsetOf(Group<T, K> group) {
+		int sum = 0;
+		for (int i = group.position; i > 0; i -= i & -i) {
+			sum += tree[i];
+		}
+		return sum;
+	}
+
+	/**
+	 * Adds the given delta to the number of rows of the group at the given position.
+	 */
+	private void updateTree(int position, int delta) {
+		for (int i = position + 1; i < tree.length; i += i & -i) {
+			tree[i] += delta;
+		}
+		rows += delta;
+	}
+
+	/**
+	 * Rebuilds the Fenwick tree, and the groups' positions, from scratch in O(g).
+	 * Called when groups are added or removed.
+	 */
+	private void rebuildTree() {
+		int count = groupOrder.size();
+		tree = new int[count + 1];
+		rows = 0;
+		for (int i = 0; i < count; i++) {
+			Group<T, K> group = groupOrder.get(i);
+			group.position = i;
+			int groupRows = group.rows();
+			rows += groupRows;
+			tree[i + 1] += groupRows;
+			int parent = i + 1 + ((i + 1) & -(i + 1));
+			if (parent <= count) tree[parent] += tree[i + 1];
+		}
+	}
+
+	/**
+	 * @return the position of the group that contains the row at the given index in the flat list
+	 */
+	private int findGroup(int index) {
+		int position = 0;
+		int remaining = index;
+		for (int step = Integer.highestOneBit(Math.max(1, tree.length - 1)); step > 0; step >>= 1) {
+			int next = position + step;
+			if (next < tree.length && tree[next] <= remaining) {
+				position = next;
+				remaining -= tree[next];
+			}
+		}
+		return position;
+	}
+
+	//================================================================================
+	// Overridden Methods
+	//================================================================================
+
+	/**
+	 * Each sub-change of the source is notified as a separate change.
+	 * <p>
+	 * Removed items are removed from their group, then added items are wrapped and added to their group.
+	 * Updated items are removed and added again, unless a single item was updated and it's still in the right place,
+	 * in which case an update is notified. Permutations re-sort the groups.
+	 * <p>
+	 * For small sub-changes the rows added and removed are recorded as they happen, while for bigger ones
+	 * the change is computed by comparing the flat list before and after, see {@link IterableChange#diff(ObservableList, int, IntFunction, int[], boolean[], int)}.
+	 */
+	@Override
+	protected void sourceChanged(ListChangeListener.Change<? extends T> c) {
+		while (c.next()) {
+			if (c.wasPermutated()) {
+				sourcePermutated(c);
+				continue;
+			}
+
+			int from = c.getFrom();
+			int to = c.getTo();
+			int size = c.wasUpdated() ? to - from : c.getRemovedSize() + c.getAddedSize();
+			IterableChange<Row<T, K>> change;
+			if (size <= SMALL_CHANGE) {
+				recorder = new ChangeRecorder<>();
+				try {
+					applyChange(c, from, to);
+					change = recorder.toChange(this);
+				} finally {
+					recorder = null;
+				}
+			} else {
+				List<Row<T, K>> oldRows = snapshot();
+				applyChange(c, from, to);
+				change = diff(oldRows, c.wasUpdated() ? from : 0, c.wasUpdated() ? to : 0);
+			}
+			if (!change.isEmpty()) fireChange(change);
+		}
+	}
+
+	private void applyChange(ListChangeListener.Change<? extends T> c, int from, int to) {
+		if (c.wasUpdated()) {
+			sourceUpdated(from, to);
+			return;
+		}
+
+		int removedSize = c.getRemovedSize();
+		for (int i = from; i < from + removedSize; i++) {
+			removeItem(items.get(i));
+		}
+		List<Item<T, K>> added = new ArrayList<>(to - from);
+		for (int i = from; i < to; i++) {
+			added.add(new Item<>(getSource().get(i), i));
+		}
+		if (removedSize == added.size()) {
+			for (int i = from; i < to; i++) {
+				items.set(i, added.get(i - from));
+			}
+		} else {
+			items.subList(from, from + removedSize).clear();
+			items.addAll(from, added);
+			for (int i = to; i < items.size(); i++) {
+				items.get(i).sourceIndex = i;
+			}
+		}
+		for (Item<T, K> item : added) {
+			insertItem(item);
+		}
+	}
+
+	private void sourceUpdated(int from, int to) {
+		if (to - from == 1) {
+			Item<T, K> item = items.get(from);
+			if (isInPlace(item)) {
+				if (!item.group.collapsed && recorder != null) {
+					recorder.updated(offsetOf(item.group) + 1 + indexInGroup(item));
+				}
+				return;
+			}
+		}
+		for (int i = from; i < to; i++) {
+			removeItem(items.get(i));
+		}
+		for (int i = from; i < to; i++) {
+			insertItem(items.get(i));
+		}
+	}
+
+	/**
+	 * Stores in each row its index in the flat list, -1 for hidden items, and returns the rows as a list.
+	 */
+	private List<Row<T, K>> snapshot() {
+		List<Row<T, K>> oldRows = new ArrayList<>(rows);
+		for (Group<T, K> group : groupOrder) {
+			group.index = oldRows.size();
+			oldRows.add(group);
+			for (Item<T, K> item : group.items) {
+				if (group.collapsed) {
+					item.index = -1;
+					continue;
+				}
+				item.index = oldRows.size();
+				oldRows.add(item);
+			}
+		}
+		return oldRows;
+	}
+
+	/**
+	 * Computes the change from the given old rows, see {@link #snapshot()}, to the current state.
+	 * Items at indexes [updateFrom, updateTo) of the source are flagged as updated.
+	 */
+	private IterableChange<Row<T, K>> diff(List<Row<T, K>> oldRows, int updateFrom, int updateTo) {
+		int[] origins = new int[rows];
+		boolean[] updated = new boolean[rows];
+		int i = 0;
+		for (Group<T, K> group : groupOrder) {
+			origins[i++] = originOf(group, oldRows);
+			if (group.collapsed) continue;
+			for (Item<T, K> item : group.items) {
+				updated[i] = item.sourceIndex >= updateFrom && item.sourceIndex < updateTo;
+				origins[i++] = originOf(item, oldRows);
+			}
+		}
+		return IterableChange.diff(this, oldRows.size(), oldRows::get, origins, updated, rows);
+	}
+
+	/**
+	 * @return the index of the given row in the given old rows, -1 if the row is new
+	 */
+	private int originOf(Row<T, K> row, List<Row<T, K>> oldRows) {
+		int index = row.index;
+		return (index >= 0 && index < oldRows.size() && oldRows.get(index) == row) ? index : -1;
+	}
+
+	private void sourcePermutated(ListChangeListener.Change<? extends T> c) {
+		int from = c.getFrom();
+		int to = c.getTo();
+		int[] oldFlat = new int[items.size()];
+		for (Group<T, K> group : groupOrder) {
+			if (group.collapsed) continue;
+			int offset = offsetOf(group) + 1;
+			for (int i = 0; i < group.items.size(); i++) {
+				oldFlat[group.items.get(i).sourceIndex] = offset + i;
+			}
+		}
+
+		List<Item<T, K>> moved = new ArrayList<>(items.subList(from, to));
+		int[] movedFlat = Arrays.copyOfRange(oldFlat, from, to);
+		for (int i = from; i < to; i++) {
+			int newIndex = c.getPermutation(i);
+			Item<T, K> item = moved.get(i - from);
+			item.sourceIndex = newIndex;
+			items.set(newIndex, item);
+			oldFlat[newIndex] = movedFlat[i - from];
+		}
+
+		int[] perm = new int[rows];
+		boolean changed = false;
+		for (Group<T, K> group : groupOrder) {
+			int offset = offsetOf(group);
+			perm[offset] = offset;
+			group.items.sort(this::compare);
+			if (group.collapsed) continue;
+			for (int i = 0; i < group.items.size(); i++) {
+				Item<T, K> item = group.items.get(i);
+				int oldIndex = oldFlat[item.sourceIndex];
+				perm[oldIndex] = offset + 1 + i;
+				changed |= oldIndex != offset + 1 + i;
+			}
+		}
+		if (changed) {
+			IterableChange<Row<T, K>> change = new IterableChange<>(this);
+			change.addPermutation(0, rows, perm);
+			fireChange(change);
+		}
+	}
+
+	@Override
+	public Row<T, K> get(int index) {
+		Objects.checkIndex(index, rows);
+		Group<T, K> group = groupOrder.get(findGroup(index));
+		int inGroup = index - offsetOf(group);
+		return (inGroup == 0) ? group : group.items.get(inGroup - 1);
+	}
+
+	@Override
+	public int size() {
+		return rows;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p></p>
+	 * Headers are not items of the source, so for them this returns -1.
+	 */
+	@Override
+	public int getSourceIndex(int index) {
+		Row<T, K> row = get(index);
+		return row.isHeader() ? -1 : ((Item<T, K>) row).sourceIndex;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p></p>
+	 * Returns -1 if the item is in a collapsed group.
+	 */
+	@Override
+	public int getViewIndex(int index) {
+		if (index < 0 || index >= items.size()) return -1;
+		Item<T, K> item = items.get(index);
+		if (item.group.collapsed) return -1;
+		return offsetOf(item.group) + 1 + indexInGroup(item);
+	}
+
+	//================================================================================
+	// Internal Classes
+	//================================================================================
+
+	/**
+	 * Records the rows removed and added by a small sub-change, as they happen, and converts them to an {@link IterableChange}.
+	 * <p>
+	 * All the removals must happen before the additions. Removals are recorded with their index at the time
+	 * of the removal, which is converted to the index in the old list; additions are recorded with their index at
+	 * the time of the addition, which is shifted by the following additions to get the index in the new list.
+	 * Both conversions are O(k) for each row, so this is meant for a small number k of rows.
+	 */
+	private static class ChangeRecorder<E> {
+		private final List<Integer> removedIndexes = new ArrayList<>();
+		private final List<E> removedRows = new ArrayList<>();
+		private int[] addedIndexes = new int[8];
+		private int added = 0;
+		private int updatedIndex = -1;
+
+		void removed(int index, E row) {
+			int oldIndex = index;
+			int pos = 0;
+			while (pos < removedIndexes.size() && removedIndexes.get(pos) <= oldIndex) {
+				oldIndex++;
+				pos++;
+			}
+			removedIndexes.add(pos, oldIndex);
+			removedRows.add(pos, row);
+		}
+
+		void added(int index) {
+			for (int i = 0; i < added; i++) {
+				if (addedIndexes[i] >= index) addedIndexes[i]++;
+			}
+			if (added == addedIndexes.length) addedIndexes = Arrays.copyOf(addedIndexes, added * 2);
+			addedIndexes[added++] = index;
+		}
+
+		void updated(int index) {
+			updatedIndex = index;
+		}
+
+		/**
+		 * Walks the removed and added rows in order, contiguous ones become a single sub-change.
+		 */
+		IterableChange<E> toChange(ObservableList<E> list) {
+			IterableChange<E> change = new IterableChange<>(list);
+			if (updatedIndex >= 0) {
+				change.addUpdate(updatedIndex, updatedIndex + 1);
+				return change;
+			}
+
+			Arrays.sort(addedIndexes, 0, added);
+			int r = 0;
+			int a = 0;
+			int shift = 0;
+			while (r < removedIndexes.size() || a < added) {
+				int removedAt = (r < removedIndexes.size()) ? removedIndexes.get(r) + shift : Integer.MAX_VALUE;
+				int addedAt = (a < added) ? addedIndexes[a] : Integer.MAX_VALUE;
+				int from = Math.min(removedAt, addedAt);
+				List<E> removed = new ArrayList<>();
+				if (removedAt == from) {
+					do {
+						removed.add(removedRows.get(r++));
+					} while (r < removedIndexes.size() && removedIndexes.get(r) == removedIndexes.get(r - 1) + 1);
+				}
+				int to = from;
+				while (a < added && addedIndexes[a] == to) {
+					to++;
+					a++;
+				}
+				change.addAddRemove(from, to, removed);
+				shift += (to - from) - removed.size();
+			}
+			return change;
+		}
+	}
+
+	/**
+	 * A row of a {@link GroupedList}, either the header of a {@link Group} or an {@link Item}.
+	 */
+	public abstract static class Row<T, K> {
+		int index = -1;
+
+		/**
+		 * @return whether this row is the header of a group
+		 */
+		public abstract boolean isHeader();
+
+		/**
+		 * @return the group of this row
+		 */
+		public abstract Group<T, K> getGroup();
+
+		/**
+		 * @return the wrapped item, or null if this row is a header
+		 */
+		public abstract T getItem();
+	}
+
+	/**
+	 * A group of items with the same key, it's also the header row of the group.
+	 */
+	public static class Group<T, K> extends Row<T, K> {
+		private final K key;
+		private final List<Item<T, K>> items = new ArrayList<>();
+		private boolean collapsed = false;
+		private int position;
+
+		Group(K key) {
+			this.key = key;
+		}
+
+		int rows() {
+			return collapsed ? 1 : items.size() + 1;
+		}
+
+		public K getKey() {
+			return key;
+		}
+
+		/**
+		 * @return the number of items in the group, collapsed or not
+		 */
+		public int size() {
+			return items.size();
+		}
+
+		public boolean isCollapsed() {
+			return collapsed;
+		}
+
+		/**
+		 * @return an unmodifiable view of the group's items, in the order they are shown
+		 */
+		public List<T> getItems() {
+			return new AbstractList<>() {
+				@Override
+				public T get(int index) {
+					return items.get(index).item;
+				}
+
+				@Override
+				public int size() {
+					return items.size();
+				}
+			};
+		}
+
+		@Override
+		public boolean isHeader() {
+			return true;
+		}
+
+		@Override
+		public Group<T, K> getGroup() {
+			return this;
+		}
+
+		@Override
+		public T getItem() {
+			return null;
+		}
+
+		@Override
+		public String toString() {
+			return "Group{" + key + ", size=" + items.size() + "}";
+		}
+	}
+
+	/**
+	 * The row of an item of the source.
+	 */
+	public static class Item<T, K> extends Row<T, K> {
+		private final T item;
+		private int sourceIndex;
+		private Group<T, K> group;
+
+		Item(T item, int sourceIndex) {
+			this.item = item;
+			this.sourceIndex = sourceIndex;
+		}
+
+		@Override
+		public boolean isHeader() {
+			return false;
+		}
+
+		@Override
+		public Group<T, K> getGroup() {
+			return group;
+		}
+
+		@Override
+		public T getItem() {
+			return item;
+		}
+
+		@Override
+		public String toString() {
+			return String.valueOf(item);
+		}
+	}
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2022 Parisi Alessandro
+ * This file is part of MFXCore (https://github.com/palexdev/MFXCore).
+ *
+ * MFXCore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MFXCore is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MFXCore.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.palexdev.mfxcore.collections;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Helper class to sort arrays of primitive indexes with a custom comparison function,
+ * without boxing them.
+ * <p>
+ * The algorithm is a stable merge sort that falls back to insertion sort for small runs.
+ * A parallel variant is also offered, see {@link #parallelSort(int[], int, int, IndexComparator, ForkJoinPool)}.
+ */
+class IndexSorter {
+	private static final int INSERTION_THRESHOLD = 32;
+
+	IndexSorter() {
+	}
+
+	/**
+	 * Sorts the given array in the range [from, to) with the given {@link IndexComparator}.
+	 */
+	public static void sort(int[] indexes, int from, int to, IndexComparator comparator) {
+		if (to - from < 2) return;
+		int[] buffer = new int[to - from];
+		mergeSort(indexes, buffer, from, to, from, comparator);
+	}
+
+	/**
+	 * Sorts the given array in the range [from, to) with the given {@link IndexComparator}, using the given
+	 * {@link ForkJoinPool} to sort the two halves of each range in parallel, until they are small enough to
+	 * be sorted sequentially.
+	 * <p>
+	 * Since the merge sort is stable, the result is the same of {@link #sort(int[], int, int, IndexComparator)}.
+	 * The comparator must be safe to use from multiple threads.
+	 */
+	public static void parallelSort(int[] indexes, int from, int to, IndexComparator comparator, ForkJoinPool pool) {
+		int length = to - from;
+		int granularity = Math.max(INSERTION_THRESHOLD, length / (pool.getParallelism() << 2));
+		if (length <= granularity) {
+			sort(indexes, from, to, comparator);
+			return;
+		}
+		int[] buffer = new int[length];
+		pool.invoke(new SortTask(indexes, buffer, from, to, from, granularity, comparator));
+	}
+
+	/**
+	 * Sorts the range [from, to) of the given array. The buffer is used to merge the two halves,
+	 * {@code offset} is the index in the array that corresponds to the index 0 in the buffer.
+	 */
+	static void mergeSort(int[] indexes, int[] buffer, int from, int to, int offset, IndexComparator comparator) {
+		if (to - from <= INSERTION_THRESHOLD) {
+			insertionSort(indexes, from, to, comparator);
+			return;
+		}
+
+		int mid = (from + to) >>> 1;
+		mergeSort(indexes, buffer, from, mid, offset, comparator);
+		mergeSort(indexes, buffer, mid, to, offset, comparator);
+		merge(indexes, buffer, from, mid, to, offset, comparator);
+	}
+
+	/**
+	 * Merges the two sorted runs [from, mid) and [mid, to) of the given array.
+	 */
+	static void merge(int[] indexes, int[] buffer, int from, int mid, int to, int offset, IndexComparator comparator) {
+		if (comparator.compare(indexes[mid - 1], indexes[mid]) <= 0) return;
+
+		int length = mid - from;
+		System.arraycopy(indexes, from, buffer, from - offset, length);
+		int i = from - offset;
+		int iEnd = i + length;
+		int j = mid;
+		int k = from;
+		while (i < iEnd && j < to) {
+			indexes[k++] = (comparator.compare(indexes[j], buffer[i]) < 0) ? indexes[j++] : buffer[i++];
+		}
+		while (i < iEnd) {
+			indexes[k++] = buffer[i++];
+		}
+	}
+
+	private static void insertionSort(int[] indexes, int from, int to, IndexComparator comparator) {
+		for (int i = from + 1; i < to; i++) {
+			int index = indexes[i];
+			int j = i - 1;
+			while (j >= from && comparator.compare(indexes[j], index) > 0) {
+				indexes[j + 1] = indexes[j];
+				j--;
+			}
+			indexes[j + 1] = index;
+		}
+	}
+
+	/**
+	 * {@link RecursiveAction} to sort a range of indexes by splitting it in two halves, sorted in parallel
+	 * and then merged.
+	 */
+	private static class SortTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final int[] indexes;
+		private final int[] buffer;
+		private final int from;
+		private final int to;
+		private final int offset;
+		private final int granularity;
+		private final IndexComparator comparator;
+
+		SortTask(int[] indexes, int[] buffer, int from, int to, int offset, int granularity, IndexComparator comparator) {
+			this.indexes = indexes;
+			this.buffer = buffer;
+			this.from = from;
+			this.to = to;
+			this.offset = offset;
+			this.granularity = granularity;
+			this.comparator = comparator;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= granularity) {
+				mergeSort(indexes, buffer, from, to, offset, comparator);
+				return;
+			}
+
+			int mid = (from + to) >>> 1;
+			invokeAll(
+					new SortTask(indexes, buffer, from, mid, offset, granularity, comparator),
+					new SortTask(indexes, buffer, mid, to, offset, granularity, comparator)
+			);
+			merge(indexes, buffer, from, mid, to, offset, comparator);
+		}
+	}
+
+	/**
+	 * Functional interface to compare two primitive indexes.
+	 */
+	@FunctionalInterface
+	interface IndexComparator {
+		int compare(int index1, int index2);
+	}
+}
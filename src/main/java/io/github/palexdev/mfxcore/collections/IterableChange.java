@@ -0,0 +1,251 @@
+/*
+ * Copyright (C) 2022 Parisi Alessandro
+ * This file is part of MFXCore (https://github.com/palexdev/MFXCore).
+ *
+ * MFXCore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MFXCore is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MFXCore.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.palexdev.mfxcore.collections;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * A {@link ListChangeListener.Change} made of multiple sub-changes, built beforehand with
+ * {@link #addPermutation(int, int, int[])}, {@link #addAddRemove(int, int, List)} and {@link #addUpdate(int, int)}.
+ * <p>
+ * Sub-changes must be added in the order they have to be processed, following the same rules of JavaFX's changes:
+ * the permutation first, if any, then the other sub-changes sorted by index.
+ */
+class IterableChange<E> extends ListChangeListener.Change<E> {
+	//================================================================================
+	// Properties
+	//================================================================================
+	private static final int[] EMPTY_PERM = new int[0];
+
+	private final List<SubChange<E>> changes = new ArrayList<>();
+	private int cursor = -1;
+
+	//================================================================================
+	// Constructors
+	//================================================================================
+	IterableChange(ObservableList<E> list) {
+		super(list);
+	}
+
+	//================================================================================
+	// Static Methods
+	//================================================================================
+
+	/**
+	 * Computes the net change between an old and a new state of a list.
+	 * <p>
+	 * The new state is described by the origin of each of its elements, that is the index of the element in the old state,
+	 * or -1 if the element was added. Old elements which are not the origin of any new element were removed.
+	 * <p>
+	 * The change is made of a permutation, if the elements that were not removed changed their relative order,
+	 * followed by the sub-changes obtained by walking the permuted old state and the new state at the same time:
+	 * removed elements of the former and added elements of the latter, if contiguous, become a single sub-change.
+	 * Kept elements flagged as updated are reported as update sub-changes.
+	 *
+	 * @param list       the list, in its new state
+	 * @param oldSize    the size of the old state
+	 * @param oldElement retrieves the elements of the old state, only called for removed ones
+	 * @param origins    the origins of the elements of the new state, only the first {@code size} are used
+	 * @param updated    flags for the kept elements which were updated, only the first {@code size} are used
+	 * @param size       the size of the new state
+	 */
+	static <E> IterableChange<E> diff(ObservableList<E> list, int oldSize, IntFunction<? extends E> oldElement, int[] origins, boolean[] updated, int size) {
+		IterableChange<E> change = new IterableChange<>(list);
+		boolean[] kept = new boolean[oldSize];
+		for (int i = 0; i < size; i++) {
+			if (origins[i] >= 0) kept[origins[i]] = true;
+		}
+
+		// Permutation, kept elements take the slots of the kept elements in their new relative order
+		int[] permutation = null;
+		int permFrom = Integer.MAX_VALUE;
+		int permTo = -1;
+		int slot = 0;
+		for (int i = 0; i < size; i++) {
+			int origin = origins[i];
+			if (origin < 0) continue;
+			while (!kept[slot]) slot++;
+			if (origin != slot) {
+				if (permutation == null) {
+					permutation = new int[oldSize];
+					for (int j = 0; j < oldSize; j++) permutation[j] = j;
+				}
+				permutation[origin] = slot;
+				permFrom = Math.min(permFrom, Math.min(origin, slot));
+				permTo = Math.max(permTo, Math.max(origin, slot) + 1);
+			}
+			slot++;
+		}
+		if (permutation != null) {
+			change.addPermutation(permFrom, permTo, Arrays.copyOfRange(permutation, permFrom, permTo));
+		}
+
+		// Additions, removals and updates
+		int p = 0;
+		int c = 0;
+		while (p < oldSize || c < size) {
+			List<E> removedRun = null;
+			while (p < oldSize && !kept[p]) {
+				if (removedRun == null) removedRun = new ArrayList<>();
+				removedRun.add(oldElement.apply(p));
+				p++;
+			}
+			int addFrom = c;
+			while (c < size && origins[c] < 0) c++;
+			if (removedRun != null || c > addFrom) {
+				change.addAddRemove(addFrom, c, (removedRun != null) ? removedRun : Collections.emptyList());
+				continue;
+			}
+
+			int updateFrom = c;
+			while (c < size && origins[c] >= 0 && updated[c] && (p >= oldSize || kept[p])) {
+				c++;
+				p++;
+			}
+			if (c > updateFrom) {
+				change.addUpdate(updateFrom, c);
+				continue;
+			}
+			c++;
+			p++;
+		}
+		return change;
+	}
+
+	//================================================================================
+	// Methods
+	//================================================================================
+
+	/**
+	 * Adds a permutation sub-change in the range [from, to), {@code permutation[i - from]} is the new index
+	 * of the element at index i.
+	 */
+	void addPermutation(int from, int to, int[] permutation) {
+		changes.add(new SubChange<>(from, to, Collections.emptyList(), permutation, false));
+	}
+
+	/**
+	 * Adds an add/remove/replace sub-change, [from, to) is the range of added elements.
+	 */
+	void addAddRemove(int from, int to, List<E> removed) {
+		changes.add(new SubChange<>(from, to, removed, EMPTY_PERM, false));
+	}
+
+	/**
+	 * Adds an update sub-change in the range [from, to).
+	 */
+	void addUpdate(int from, int to) {
+		changes.add(new SubChange<>(from, to, Collections.emptyList(), EMPTY_PERM, true));
+	}
+
+	boolean isEmpty() {
+		return changes.isEmpty();
+	}
+
+	private SubChange<E> current() {
+		if (cursor < 0 || cursor >= changes.size()) {
+			throw new IllegalStateException("Invalid Change state: next() must be called before inspecting the Change.");
+		}
+		return changes.get(cursor);
+	}
+
+	//================================================================================
+	// Overridden Methods
+	//================================================================================
+	@Override
+	public boolean next() {
+		if (cursor < changes.size()) cursor++;
+		return cursor < changes.size();
+	}
+
+	@Override
+	public void reset() {
+		cursor = -1;
+	}
+
+	@Override
+	public int getFrom() {
+		return current().from;
+	}
+
+	@Override
+	public int getTo() {
+		return current().to;
+	}
+
+	@Override
+	public List<E> getRemoved() {
+		return current().removed;
+	}
+
+	@Override
+	protected int[] getPermutation() {
+		return current().permutation;
+	}
+
+	@Override
+	public boolean wasUpdated() {
+		return current().updated;
+	}
+
+	@Override
+	public String toString() {
+		int oldCursor = cursor;
+		StringBuilder sb = new StringBuilder("{ ");
+		for (cursor = 0; cursor < changes.size(); cursor++) {
+			if (cursor > 0) sb.append(", ");
+			SubChange<E> c = changes.get(cursor);
+			if (wasPermutated()) {
+				sb.append(ChangeHelper.permChangeToString(c.permutation));
+			} else if (wasUpdated()) {
+				sb.append(ChangeHelper.updateChangeToString(c.from, c.to));
+			} else {
+				sb.append(ChangeHelper.addRemoveChangeToString(c.from, c.to, getList(), c.removed));
+			}
+		}
+		cursor = oldCursor;
+		return sb.append(" }").toString();
+	}
+
+	//================================================================================
+	// Internal Classes
+	//================================================================================
+	private static class SubChange<E> {
+		private final int from;
+		private final int to;
+		private final List<E> removed;
+		private final int[] permutation;
+		private final boolean updated;
+
+		SubChange(int from, int to, List<E> removed, int[] permutation, boolean updated) {
+			this.from = from;
+			this.to = to;
+			this.removed = removed;
+			this.permutation = permutation;
+			this.updated = updated;
+		}
+	}
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright (C) 2022 Parisi Alessandro
+ * This file is part of MFXCore (https://github.com/palexdev/MFXCore).
+ *
+ * MFXCore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MFXCore is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MFXCore.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.palexdev.mfxcore.collections;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+
+/**
+ * Primitive specialization of {@link CircularQueue} for {@code long} values.
+ * <p>
+ * Values are stored in a {@code long[]} used as a ring buffer, so there's no boxing and no allocation
+ * per value. When the maximum size is reached the oldest value is removed and replaced by the new one.
+ * <p>
+ * Index 0 is the oldest value, the head of the queue, while {@code size() - 1} is the newest one.
+ */
+public class LongCircularQueue {
+	//================================================================================
+	// Properties
+	//================================================================================
+	private static final int INITIAL_CAPACITY = 16;
+	private long[] elements;
+	private int head = 0;
+	private int count = 0;
+	private int size;
+
+	//================================================================================
+	// Constructors
+	//================================================================================
+	public LongCircularQueue(int size) {
+		if (size <= 0) {
+			throw new IllegalArgumentException("Size must be greater than 0!");
+		}
+		this.size = size;
+		this.elements = new long[Math.min(size, INITIAL_CAPACITY)];
+	}
+
+	//================================================================================
+	// Methods
+	//================================================================================
+
+	/**
+	 * Adds the specified value to the queue and if it is full removes the oldest value
+	 * and then adds the new one.
+	 */
+	public void add(long value) {
+		if (count == size) {
+			elements[head] = value;
+			head = physicalIndex(1);
+			return;
+		}
+
+		if (count == elements.length) {
+			resize((int) Math.min(size, Math.max(INITIAL_CAPACITY, elements.length * 2L)));
+		}
+		elements[physicalIndex(count)] = value;
+		count++;
+	}
+
+	/**
+	 * @return the value at the given index, where 0 is the oldest value
+	 */
+	public long get(int index) {
+		Objects.checkIndex(index, count);
+		return elements[physicalIndex(index)];
+	}
+
+	/**
+	 * Replaces the value at the given index.
+	 *
+	 * @return the previous value
+	 */
+	public long set(int index, long value) {
+		Objects.checkIndex(index, count);
+		int i = physicalIndex(index);
+		long old = elements[i];
+		elements[i] = value;
+		return old;
+	}
+
+	/**
+	 * @return the oldest value in the queue
+	 * @throws NoSuchElementException if the queue is empty
+	 */
+	public long getFirst() {
+		if (count == 0) throw new NoSuchElementException();
+		return elements[head];
+	}
+
+	/**
+	 * @return the newest value in the queue
+	 * @throws NoSuchElementException if the queue is empty
+	 */
+	public long getLast() {
+		if (count == 0) throw new NoSuchElementException();
+		return elements[physicalIndex(count - 1)];
+	}
+
+	/**
+	 * Removes and returns the oldest value in the queue.
+	 *
+	 * @throws NoSuchElementException if the queue is empty
+	 */
+	public long removeFirst() {
+		if (count == 0) throw new NoSuchElementException();
+		long value = elements[head];
+		head = physicalIndex(1);
+		count--;
+		return value;
+	}
+
+	/**
+	 * Removes and returns the newest value in the queue.
+	 *
+	 * @throws NoSuchElementException if the queue is empty
+	 */
+	public long removeLast() {
+		if (count == 0) throw new NoSuchElementException();
+		count--;
+		return elements[physicalIndex(count)];
+	}
+
+	/**
+	 * @return the number of values in the queue
+	 */
+	public int size() {
+		return count;
+	}
+
+	public boolean isEmpty() {
+		return count == 0;
+	}
+
+	/**
+	 * Removes all the values from the queue.
+	 */
+	public void clear() {
+		head = 0;
+		count = 0;
+	}
+
+	/**
+	 * Sets the maximum size of the queue and removes exceeding values
+	 * if the specified size is lesser than the number of values.
+	 * The oldest values are removed all at once.
+	 *
+	 * @param size The new desired size
+	 * @throws IllegalArgumentException if the desired size is 0 or negative
+	 */
+	public void setSize(int size) {
+		if (size <= 0) {
+			throw new IllegalArgumentException("Size must be greater than 0!");
+		}
+
+		if (size < count) {
+			head = physicalIndex(count - size);
+			count = size;
+		}
+		if (elements.length > size) {
+			resize(size);
+		}
+		this.size = size;
+	}
+
+	/**
+	 * @return the maximum number of values the queue can hold
+	 */
+	public int getMaxSize() {
+		return size;
+	}
+
+	/**
+	 * Performs the given action for each value in the queue, from the oldest to the newest.
+	 */
+	public void forEach(LongConsumer action) {
+		for (int i = 0; i < count; i++) {
+			action.accept(elements[physicalIndex(i)]);
+		}
+	}
+
+	/**
+	 * @return a new array containing the values in the queue, from the oldest to the newest
+	 */
+	public long[] toArray() {
+		long[] array = new long[count];
+		int firstChunk = Math.min(count, elements.length - head);
+		System.arraycopy(elements, head, array, 0, firstChunk);
+		System.arraycopy(elements, 0, array, firstChunk, count - firstChunk);
+		return array;
+	}
+
+	/**
+	 * @return a sequential {@link LongStream} of the values in the queue, from the oldest to the newest
+	 */
+	public LongStream stream() {
+		return Arrays.stream(toArray());
+	}
+
+	/**
+	 * Converts the given logical index, where 0 is the head of the queue, to the index in the array.
+	 */
+	private int physicalIndex(int index) {
+		int i = head + index;
+		return (i >= elements.length) ? i - elements.length : i;
+	}
+
+	/**
+	 * Copies the values in a new array of the given capacity, with the head at index 0.
+	 */
+	private void resize(int capacity) {
+		long[] newElements = new long[capacity];
+		int firstChunk = Math.min(count, elements.length - head);
+		System.arraycopy(elements, head, newElements, 0, firstChunk);
+		System.arraycopy(elements, 0, newElements, firstChunk, count - firstChunk);
+		elements = newElements;
+		head = 0;
+	}
+
+	//================================================================================
+	// Overridden Methods
+	//================================================================================
+	@Override
+	public String toString() {
+		return Arrays.toString(toArray());
+	}
+}
@@ -21,13 +21,20 @@ package io.github.palexdev.mfxcore.collections;
 import javafx.beans.property.SimpleListProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ListChangeListener;
-import javafx.collections.ObservableList;
 
 import java.util.*;
 
 /**
- * A crude implementation of an observable stack It includes the main features of a stack namely:
- * push and pop.
+ * An implementation of an observable stack. It includes the main features of a stack namely:
+ * push and pop, also in bulk with {@link #pushAll(Collection)} and {@link #popN(int)}.
+ * <p>
+ * The elements are stored in an array, the top of the stack is the element at index 0 of the list.
+ * <p></p>
+ * Every operation fires exactly one change, even the bulk ones. To avoid allocating an object
+ * for each operation the change is reused, this means that listeners should not keep references to it
+ * (or to its removed list) after being notified, which is anyway the contract of {@link ListChangeListener}.
+ * If the stack is modified by a listener during a notification, the ongoing change keeps its data, and the
+ * new change is a separate object.
  *
  * @param <E> Any type
  */
@@ -35,14 +42,18 @@ public class ObservableStack<E> extends SimpleListProperty<E> {
 	//================================================================================
 	// Properties
 	//================================================================================
-	private final LinkedList<E> stack;
+	private static final int[] EMPTY_PERMUTATION = new int[0];
+
+	private Object[] elements = new Object[8];
+	private int size = 0;
+	private final StackChange change = new StackChange();
+	private StackChange firing;
 
 	//================================================================================
 	// Constructors
 	//================================================================================
 	public ObservableStack() {
-		this.stack = new LinkedList<>();
-		this.set(FXCollections.observableList(this.stack));
+		this.set(FXCollections.observableList(new StackList()));
 	}
 
 	//================================================================================
@@ -56,21 +67,68 @@ public class ObservableStack<E> extends SimpleListProperty<E> {
 	 * @return the item that was just pushed
 	 */
 	public E push(E item) {
-		stack.push(item);
-		fireValueChangedEvent(new StackChange(this.get(),
-				ChangeType.PUSH.setChangedObj(Collections.singletonList(item))));
+		beforeChange();
+		ensureCapacity(size + 1);
+		elements[size++] = item;
+		fireChange(true, 1);
 		return item;
 	}
 
+	/**
+	 * Pushes all the given elements in the order they are specified, so the last one will be at the top of the stack.
+	 * Fires a single change.
+	 *
+	 * @return true if the stack changed
+	 * @throws NullPointerException if the collection is null
+	 */
+	public boolean pushAll(Collection<? extends E> items) {
+		if (items.isEmpty()) return false;
+		beforeChange();
+		ensureCapacity(size + items.size());
+		int count = 0;
+		for (E item : items) {
+			elements[size++] = item;
+			count++;
+		}
+		fireChange(true, count);
+		return true;
+	}
+
 	/**
 	 * @return the item at the top of the stack granted that the stack is not empty
 	 * @throws NoSuchElementException if the stack is empty
 	 */
 	public E pop() throws NoSuchElementException {
-		E temp = stack.pop();
-		fireValueChangedEvent(new StackChange(this.get(),
-				ChangeType.POP.setChangedObj(Collections.singletonList(temp))));
-		return temp;
+		if (size == 0) throw new NoSuchElementException("Stack is empty");
+		E top = element(size - 1);
+		removeTop(1);
+		return top;
+	}
+
+	/**
+	 * Removes the first n elements from the top of the stack, firing a single change.
+	 *
+	 * @return the removed elements, the first one was the top of the stack
+	 * @throws NoSuchElementException if the stack contains less than n elements
+	 */
+	public List<E> popN(int n) throws NoSuchElementException {
+		if (n < 0) throw new IllegalArgumentException("Cannot pop a negative number of elements: " + n);
+		if (n > size) throw new NoSuchElementException("Cannot pop " + n + " elements, stack size is " + size);
+		List<E> popped = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) {
+			popped.add(element(size - 1 - i));
+		}
+		if (n > 0) removeTop(n);
+		return popped;
+	}
+
+	/**
+	 * @return the item at the top of the stack without removing it
+	 * @throws NoSuchElementException if the stack is empty
+	 */
+	public E peek() throws NoSuchElementException {
+		if (size == 0) throw new NoSuchElementException("Stack is empty");
+		return element(size - 1);
 	}
 
 	/**
@@ -109,10 +167,19 @@ public class ObservableStack<E> extends SimpleListProperty<E> {
 	 * @throws NoSuchElementException if the stack is already empty
 	 */
 	public boolean removeAll() throws NoSuchElementException {
-		this.get().remove(0, getSize());
+		if (size == 0) throw new NoSuchElementException("Stack is empty");
+		removeTop(size);
 		return true;
 	}
 
+	/**
+	 * Empties the stack, firing a single change. Does nothing if the stack is already empty.
+	 */
+	@Override
+	public void clear() {
+		if (size != 0) removeTop(size);
+	}
+
 	/**
 	 * Adds an element to the given index
 	 *
@@ -124,10 +191,10 @@ public class ObservableStack<E> extends SimpleListProperty<E> {
 	 */
 	@Override
 	public void add(int i, E element) throws IllegalArgumentException {
-		if (0 == i) {
-			push(element);
+		if (0 != i) {
+			throw new IllegalArgumentException("Can only modify the top of the stack " + i);
 		}
-		throw new IllegalArgumentException("Can only modify the top of the stack " + i);
+		push(element);
 	}
 
 	/**
@@ -136,12 +203,11 @@ public class ObservableStack<E> extends SimpleListProperty<E> {
 	 * @param elements the collection to be added to this stack
 	 * @return true
 	 * @throws NullPointerException if the collection is null
+	 * @see #pushAll(Collection)
 	 */
 	@Override
 	public boolean addAll(Collection<? extends E> elements) throws NullPointerException {
-		elements.forEach(stack::push);
-		fireValueChangedEvent(new StackChange(this.get(),
-				ChangeType.PUSH.setChangedObj(new ArrayList<>(elements))));
+		pushAll(elements);
 		return true;
 	}
 
@@ -198,61 +264,136 @@ public class ObservableStack<E> extends SimpleListProperty<E> {
 	}
 
 	/**
-	 * Used to determine what change occurred in the stack
+	 * Removes the given number of elements from the top of the stack and fires the change.
+	 * <p>
+	 * The removed slots are cleared only after the notification, so that the change can read them
+	 * without copying them.
 	 */
-	private enum ChangeType {
-		PUSH, POP;
+	private void removeTop(int count) {
+		beforeChange();
+		int oldSize = size;
+		size -= count;
+		try {
+			fireChange(false, count);
+		} finally {
+			if (size < oldSize) Arrays.fill(elements, size, oldSize, null);
+		}
+	}
 
-		/**
-		 * The object that was changed
-		 */
-		private List changedObj;
+	/**
+	 * If a change is being notified, detaches it from the array before it is modified.
+	 */
+	private void beforeChange() {
+		if (firing != null) firing.detach();
+	}
 
-		/**
-		 * The changed object(s) are packaged as a list
-		 *
-		 * @return The list of changed objects
-		 */
-		public List getChangedObj() {
-			return changedObj;
+	private void fireChange(boolean added, int count) {
+		StackChange c = (firing == null) ? change : new StackChange();
+		c.init(added, count, size + count - 1);
+		StackChange previous = firing;
+		firing = c;
+		try {
+			fireValueChangedEvent(c);
+		} finally {
+			firing = previous;
+			c.clear();
 		}
+	}
 
-		/**
-		 * Method to accept the changed object
-		 *
-		 * @param obj the list of objects that were changed in the stack
-		 * @return this enum
-		 */
-		public ChangeType setChangedObj(List obj) {
-			this.changedObj = obj;
-			return this;
+	private void ensureCapacity(int capacity) {
+		if (capacity > elements.length) {
+			elements = Arrays.copyOf(elements, Math.max(capacity, elements.length << 1));
 		}
 	}
 
-	private final class StackChange extends ListChangeListener.Change<E> {
+	@SuppressWarnings("unchecked")
+	private E element(int arrayIndex) {
+		return (E) elements[arrayIndex];
+	}
+
+	//================================================================================
+	// Internal Classes
+	//================================================================================
+
+	/**
+	 * Read-only list view of the stack's array, the element at index 0 is the top of the stack.
+	 */
+	private final class StackList extends AbstractList<E> implements RandomAccess {
+		@Override
+		public E get(int index) {
+			Objects.checkIndex(index, size);
+			return element(size - 1 - index);
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
 
-		private final ChangeType type;
+	private final class StackChange extends ListChangeListener.Change<E> {
+		private boolean added;
+		private int count;
+		private int top;
+		private List<E> detached;
 		private boolean onChange;
+		private final List<E> removed = new AbstractList<>() {
+			@Override
+			public E get(int index) {
+				Objects.checkIndex(index, count);
+				return element(top - index);
+			}
+
+			@Override
+			public int size() {
+				return count;
+			}
+		};
 
 		/**
-		 * Constructs a new change done to a list.
+		 * Constructs a new change done to the stack.
+		 */
+		public StackChange() {
+			super(ObservableStack.this);
+		}
+
+		/**
+		 * Sets up the change.
 		 *
-		 * @param list that was changed
+		 * @param added whether elements were pushed or popped
+		 * @param count the number of pushed/popped elements
+		 * @param top   the array index of the element that is/was at the top of the stack
 		 */
-		public StackChange(ObservableList<E> list, ChangeType type) {
-			super(list);
-			this.type = type;
-			onChange = false;
+		void init(boolean added, int count, int top) {
+			this.added = added;
+			this.count = count;
+			this.top = top;
+			this.detached = null;
+			this.onChange = false;
+		}
+
+		/**
+		 * Copies the removed elements, so that the array can be modified.
+		 */
+		void detach() {
+			if (!added && detached == null) {
+				detached = new ArrayList<>(removed);
+			}
+		}
+
+		void clear() {
+			detached = null;
+			count = 0;
 		}
 
 		@Override
 		public boolean wasAdded() {
-			return type == ChangeType.PUSH;
+			return added;
 		}
 
 		@Override
 		public boolean wasRemoved() {
-			return type == ChangeType.POP;
+			return !added;
 		}
 
 		@Override
@@ -276,35 +417,42 @@ public class ObservableStack<E> extends SimpleListProperty<E> {
 		 */
 		@Override
 		public int getFrom() {
-			if (!onChange) {
-				throw new IllegalStateException(
-						"Invalid Change state: next() must be called before inspecting the Change.");
-			}
+			checkState();
 			return 0;
 		}
 
 		/**
-		 * @return the size of the list returned which indicates the end of the change
+		 * @return the number of pushed elements, or 0 if elements were popped
 		 */
 		@Override
 		public int getTo() {
-			if (!onChange) {
-				throw new IllegalStateException(
-						"Invalid Change state: next() must be called before inspecting the Change.");
-			}
-			return type.getChangedObj().size();
+			checkState();
+			return added ? count : 0;
 		}
 
 		@Override
 		public List<E> getRemoved() {
-			return wasRemoved() ? type.getChangedObj() :
-					Collections.emptyList();
+			checkState();
+			if (added) return Collections.emptyList();
+			return (detached != null) ? detached : removed;
+		}
+
+		@Override
+		public int getRemovedSize() {
+			checkState();
+			return added ? 0 : count;
 		}
 
 		@Override
 		protected int[] getPermutation() {
-			return new int[0];
+			return EMPTY_PERMUTATION;
+		}
+
+		private void checkState() {
+			if (!onChange) {
+				throw new IllegalStateException(
+						"Invalid Change state: next() must be called before inspecting the Change.");
+			}
 		}
 	}
 }
-
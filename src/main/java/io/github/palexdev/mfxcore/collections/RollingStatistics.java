@@ -0,0 +1,321 @@
+/*
+ * Copyright (C) 2022 Parisi Alessandro
+ * This file is part of MFXCore (https://github.com/palexdev/MFXCore).
+ *
+ * MFXCore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MFXCore is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MFXCore.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.palexdev.mfxcore.collections;
+
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.ReadOnlyIntegerWrapper;
+import javafx.util.Duration;
+
+/**
+ * A rolling window of {@code double} samples which keeps some statistics about them always up to date:
+ * count, min, max, sum, mean and variance.
+ * <p>
+ * The window can be bounded both by the number of samples and by their age, when a bound is exceeded the oldest samples
+ * are evicted, like in a {@link CircularQueue}.
+ * <p></p>
+ * Statistics are updated in O(1) (amortized for min and max) for each added and evicted sample, without ever
+ * scanning the window:
+ * <p> - min and max are retrieved from two monotonic deques, which keep the candidates for the min and the max
+ * of the current window, in order
+ * <p> - mean and variance are updated with Welford's algorithm
+ * <p></p>
+ * All the statistics are exposed as read-only properties, so they can be bound, for example to labels.
+ * Empty windows have 0 as sum and NaN as min, max, mean and variance.
+ */
+public class RollingStatistics {
+	//================================================================================
+	// Properties
+	//================================================================================
+	private final int maxCount;
+	private final long maxAge;
+	private final DoubleCircularQueue values;
+	private final LongCircularQueue timestamps;
+	private final LongCircularQueue minCandidates;
+	private final LongCircularQueue maxCandidates;
+	private long firstSequence = 0;
+	private long nextSequence = 0;
+
+	private double runningSum = 0;
+	private double runningMean = 0;
+	private double m2 = 0;
+
+	private final ReadOnlyIntegerWrapper count = new ReadOnlyIntegerWrapper();
+	private final ReadOnlyDoubleWrapper min = new ReadOnlyDoubleWrapper(Double.NaN);
+	private final ReadOnlyDoubleWrapper max = new ReadOnlyDoubleWrapper(Double.NaN);
+	private final ReadOnlyDoubleWrapper sum = new ReadOnlyDoubleWrapper();
+	private final ReadOnlyDoubleWrapper mean = new ReadOnlyDoubleWrapper(Double.NaN);
+	private final ReadOnlyDoubleWrapper variance = new ReadOnlyDoubleWrapper(Double.NaN);
+
+	//================================================================================
+	// Constructors
+	//================================================================================
+
+	/**
+	 * Creates a window bounded only by the number of samples.
+	 */
+	public RollingStatistics(int maxCount) {
+		this(maxCount, Duration.INDEFINITE);
+	}
+
+	/**
+	 * Creates a window bounded both by the number of samples and by their age.
+	 */
+	public RollingStatistics(int maxCount, Duration maxAge) {
+		if (maxCount <= 0) {
+			throw new IllegalArgumentException("Max count must be greater than 0!");
+		}
+		this.maxCount = maxCount;
+		this.maxAge = maxAge.isIndefinite() ? Long.MAX_VALUE : (long) maxAge.toMillis();
+		this.values = new DoubleCircularQueue(maxCount);
+		this.timestamps = new LongCircularQueue(maxCount);
+		this.minCandidates = new LongCircularQueue(maxCount);
+		this.maxCandidates = new LongCircularQueue(maxCount);
+	}
+
+	//================================================================================
+	// Methods
+	//================================================================================
+
+	/**
+	 * Adds a sample to the window, using {@link System#currentTimeMillis()} as its timestamp.
+	 *
+	 * @see #add(double, long)
+	 */
+	public void add(double value) {
+		add(value, System.currentTimeMillis());
+	}
+
+	/**
+	 * Adds a sample with the given timestamp, in milliseconds, to the window.
+	 * Evicts the oldest sample if the window is full, and the ones older than the max age,
+	 * relative to the given timestamp.
+	 * <p>
+	 * Timestamps are expected to be non-decreasing.
+	 */
+	public void add(double value, long timestamp) {
+		if (values.size() == maxCount) evictFirst();
+
+		long sequence = nextSequence++;
+		values.add(value);
+		timestamps.add(timestamp);
+		while (!minCandidates.isEmpty() && valueOf(minCandidates.getLast()) > value) {
+			minCandidates.removeLast();
+		}
+		minCandidates.add(sequence);
+		while (!maxCandidates.isEmpty() && valueOf(maxCandidates.getLast()) < value) {
+			maxCandidates.removeLast();
+		}
+		maxCandidates.add(sequence);
+
+		int n = values.size();
+		double delta = value - runningMean;
+		runningMean += delta / n;
+		m2 += delta * (value - runningMean);
+		runningSum += value;
+
+		evictOlderThan(timestamp);
+		updateProperties();
+	}
+
+	/**
+	 * Evicts the samples older than the max age, relative to {@link System#currentTimeMillis()}.
+	 * <p>
+	 * Samples are also evicted when new ones are added, this is useful to age the window when no samples are coming.
+	 */
+	public void evictExpired() {
+		evictExpired(System.currentTimeMillis());
+	}
+
+	/**
+	 * Evicts the samples older than the max age, relative to the given timestamp in milliseconds.
+	 */
+	public void evictExpired(long timestamp) {
+		evictOlderThan(timestamp);
+		updateProperties();
+	}
+
+	/**
+	 * Removes all the samples from the window.
+	 */
+	public void clear() {
+		values.clear();
+		timestamps.clear();
+		minCandidates.clear();
+		maxCandidates.clear();
+		firstSequence = nextSequence;
+		runningSum = 0;
+		runningMean = 0;
+		m2 = 0;
+		updateProperties();
+	}
+
+	/**
+	 * @return the sample at the given index, where 0 is the oldest one
+	 */
+	public double get(int index) {
+		return values.get(index);
+	}
+
+	/**
+	 * @return a new array containing the samples in the window, from the oldest to the newest
+	 */
+	public double[] toArray() {
+		return values.toArray();
+	}
+
+	public int getMaxCount() {
+		return maxCount;
+	}
+
+	/**
+	 * @return the maximum age of the samples in milliseconds, {@link Long#MAX_VALUE} if the window is not bounded by time
+	 */
+	public long getMaxAge() {
+		return maxAge;
+	}
+
+	private void evictOlderThan(long timestamp) {
+		if (maxAge == Long.MAX_VALUE) return;
+		while (!timestamps.isEmpty() && timestamp - timestamps.getFirst() > maxAge) {
+			evictFirst();
+		}
+	}
+
+	/**
+	 * Evicts the oldest sample, updating the running statistics and the min/max candidates.
+	 */
+	private void evictFirst() {
+		long sequence = firstSequence++;
+		double value = values.removeFirst();
+		timestamps.removeFirst();
+		if (minCandidates.getFirst() == sequence) minCandidates.removeFirst();
+		if (maxCandidates.getFirst() == sequence) maxCandidates.removeFirst();
+
+		int n = values.size();
+		if (n == 0) {
+			runningSum = 0;
+			runningMean = 0;
+			m2 = 0;
+			return;
+		}
+		double delta = value - runningMean;
+		runningMean -= delta / n;
+		m2 = Math.max(0, m2 - delta * (value - runningMean));
+		runningSum -= value;
+	}
+
+	private double valueOf(long sequence) {
+		return values.get((int) (sequence - firstSequence));
+	}
+
+	private void updateProperties() {
+		int n = values.size();
+		count.set(n);
+		sum.set(runningSum);
+		if (n == 0) {
+			min.set(Double.NaN);
+			max.set(Double.NaN);
+			mean.set(Double.NaN);
+			variance.set(Double.NaN);
+			return;
+		}
+		min.set(valueOf(minCandidates.getFirst()));
+		max.set(valueOf(maxCandidates.getFirst()));
+		mean.set(runningMean);
+		variance.set(m2 / n);
+	}
+
+	//================================================================================
+	// Getters
+	//================================================================================
+	public int getCount() {
+		return count.get();
+	}
+
+	/**
+	 * Specifies the number of samples in the window.
+	 */
+	public ReadOnlyIntegerProperty countProperty() {
+		return count.getReadOnlyProperty();
+	}
+
+	public double getMin() {
+		return min.get();
+	}
+
+	/**
+	 * Specifies the minimum sample in the window.
+	 */
+	public ReadOnlyDoubleProperty minProperty() {
+		return min.getReadOnlyProperty();
+	}
+
+	public double getMax() {
+		return max.get();
+	}
+
+	/**
+	 * Specifies the maximum sample in the window.
+	 */
+	public ReadOnlyDoubleProperty maxProperty() {
+		return max.getReadOnlyProperty();
+	}
+
+	public double getSum() {
+		return sum.get();
+	}
+
+	/**
+	 * Specifies the sum of the samples in the window.
+	 */
+	public ReadOnlyDoubleProperty sumProperty() {
+		return sum.getReadOnlyProperty();
+	}
+
+	public double getMean() {
+		return mean.get();
+	}
+
+	/**
+	 * Specifies the arithmetic mean of the samples in the window.
+	 */
+	public ReadOnlyDoubleProperty meanProperty() {
+		return mean.getReadOnlyProperty();
+	}
+
+	public double getVariance() {
+		return variance.get();
+	}
+
+	/**
+	 * Specifies the population variance of the samples in the window.
+	 */
+	public ReadOnlyDoubleProperty varianceProperty() {
+		return variance.getReadOnlyProperty();
+	}
+
+	/**
+	 * @return the population standard deviation of the samples in the window
+	 */
+	public double getStandardDeviation() {
+		return Math.sqrt(getVariance());
+	}
+}
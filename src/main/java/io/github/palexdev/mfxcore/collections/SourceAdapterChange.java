@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2022 Parisi Alessandro
+ * This file is part of MFXCore (https://github.com/palexdev/MFXCore).
+ *
+ * MFXCore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MFXCore is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MFXCore.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.palexdev.mfxcore.collections;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.util.List;
+
+/**
+ * A {@link ListChangeListener.Change} that wraps a change of another list and presents it as a change of the given list.
+ * Useful for lists that, at least temporarily, have the same elements of their source, to forward the source's changes
+ * without translating them.
+ */
+class SourceAdapterChange<E> extends ListChangeListener.Change<E> {
+	//================================================================================
+	// Properties
+	//================================================================================
+	private static final int[] EMPTY_PERM = new int[0];
+
+	private final ListChangeListener.Change<? extends E> change;
+	private int[] permutation;
+
+	//================================================================================
+	// Constructors
+	//================================================================================
+	SourceAdapterChange(ObservableList<E> list, ListChangeListener.Change<? extends E> change) {
+		super(list);
+		this.change = change;
+	}
+
+	//================================================================================
+	// Overridden Methods
+	//================================================================================
+	@Override
+	public boolean next() {
+		permutation = null;
+		return change.next();
+	}
+
+	@Override
+	public void reset() {
+		permutation = null;
+		change.reset();
+	}
+
+	@Override
+	public int getFrom() {
+		return change.getFrom();
+	}
+
+	@Override
+	public int getTo() {
+		return change.getTo();
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<E> getRemoved() {
+		return (List<E>) change.getRemoved();
+	}
+
+	@Override
+	public boolean wasUpdated() {
+		return change.wasUpdated();
+	}
+
+	/**
+	 * The permutation array of the wrapped change is not accessible, so it is rebuilt with
+	 * {@link ListChangeListener.Change#getPermutation(int)}, only once per sub-change.
+	 */
+	@Override
+	protected int[] getPermutation() {
+		if (permutation == null) {
+			if (change.wasPermutated()) {
+				int from = change.getFrom();
+				int to = change.getTo();
+				permutation = new int[to - from];
+				for (int i = from; i < to; i++) {
+					permutation[i - from] = change.getPermutation(i);
+				}
+			} else {
+				permutation = EMPTY_PERM;
+			}
+		}
+		return permutation;
+	}
+
+	@Override
+	public String toString() {
+		return change.toString();
+	}
+}
@@ -0,0 +1,386 @@
+/*
+ * Copyright (C) 2022 Parisi Alessandro
+ * This file is part of MFXCore (https://github.com/palexdev/MFXCore).
+ *
+ * MFXCore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MFXCore is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MFXCore.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.palexdev.mfxcore.collections;
+
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.TransformationList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A {@code TopKList} is a view over another {@link ObservableList} which only contains its first K elements,
+ * see {@link #kProperty()}, according to the given {@link Comparator}. For example, a leaderboard would use
+ * a comparator which sorts scores in descending order. Ties are shown in the order the elements were added.
+ * <p>
+ * The source is never sorted. The first K elements are kept in a sorted window, while the others are kept in an
+ * indexed binary heap whose root is the best of them. When an element of the window is removed, or K increases,
+ * the window is refilled from the heap, so evicted elements come back automatically. When an element enters the
+ * window and the window is full, its last element is evicted to the heap.
+ * <p>
+ * This way, a source change which doesn't involve the window costs O(log n), for the heap, and one that does
+ * also costs O(K) for the window, which is small, while a full sort would cost O(n log n).
+ * <p></p>
+ * Note that elements are only compared when added, or when the source notifies an update, so comparators
+ * over mutable elements should be backed by an extractor, as for the other transformations.
+ *
+ * @param <E> the elements' type
+ */
+public class TopKList<E> extends TransformationList<E, E> {
+	//================================================================================
+	// Properties
+	//================================================================================
+	private final Comparator<? super E> comparator;
+	private final List<Node<E>> nodes = new ArrayList<>();
+	private final List<Node<E>> window = new ArrayList<>();
+	private Node<E>[] heap = newHeap(16);
+	private int heapSize = 0;
+	private long serial = 0;
+
+	private Node<E>[] oldWindow;
+
+	private final IntegerProperty k = new SimpleIntegerProperty() {
+		@Override
+		protected void invalidated() {
+			resize();
+		}
+	};
+
+	//================================================================================
+	// Constructors
+	//================================================================================
+	public TopKList(ObservableList<? extends E> source, Comparator<? super E> comparator, int k) {
+		super(source);
+		this.comparator = Objects.requireNonNull(comparator);
+		setK(k);
+		for (E e : source) {
+			Node<E> node = new Node<>(e, serial++);
+			nodes.add(node);
+			add(node);
+		}
+		oldWindow = null;
+	}
+
+	//================================================================================
+	// Methods
+	//================================================================================
+
+	/**
+	 * Grows or shrinks the window to the current K, moving elements from/to the heap, and notifies the change.
+	 */
+	private void resize() {
+		int target = Math.max(0, getK());
+		touchWindow();
+		while (window.size() > target) {
+			Node<E> evicted = window.remove(window.size() - 1);
+			evicted.inWindow = false;
+			push(evicted);
+		}
+		refill();
+		commit();
+	}
+
+	/**
+	 * Adds the given node to the window, if it's better than the last element or the window is not full,
+	 * otherwise to the heap. Expects the window to be full, unless the heap is empty, see {@link #refill()}.
+	 */
+	private void add(Node<E> node) {
+		int max = Math.max(0, getK());
+		if (window.size() == max && (max == 0 || compare(node, window.get(max - 1)) >= 0)) {
+			push(node);
+			return;
+		}
+		insertInWindow(node);
+		if (window.size() > max) {
+			Node<E> evicted = window.remove(max);
+			evicted.inWindow = false;
+			push(evicted);
+		}
+	}
+
+	/**
+	 * Removes the given node from the window or from the heap. The window is not refilled.
+	 */
+	private void remove(Node<E> node) {
+		if (node.inWindow) {
+			touchWindow();
+			window.remove(window.indexOf(node));
+			node.inWindow = false;
+		} else {
+			removeFromHeap(node.heapIndex);
+		}
+	}
+
+	/**
+	 * Moves the best elements from the heap to the window until it's full or the heap is empty.
+	 */
+	private void refill() {
+		int max = Math.max(0, getK());
+		while (window.size() < max && heapSize > 0) {
+			Node<E> best = heap[0];
+			removeFromHeap(0);
+			insertInWindow(best);
+		}
+	}
+
+	private void insertInWindow(Node<E> node) {
+		touchWindow();
+		int low = 0;
+		int high = window.size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (compare(window.get(mid), node) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		window.add(low, node);
+		node.inWindow = true;
+	}
+
+	/**
+	 * Saves the window before its first modification in the current change, and stores in each node its old index.
+	 */
+	private void touchWindow() {
+		if (oldWindow != null) return;
+		oldWindow = window.toArray(newHeap(0));
+		for (int i = 0; i < oldWindow.length; i++) {
+			oldWindow[i].index = i;
+		}
+	}
+
+	/**
+	 * Notifies the difference between the saved window, if any, and the current one.
+	 */
+	private void commit() {
+		if (oldWindow == null) return;
+		Node<E>[] old = oldWindow;
+		oldWindow = null;
+		int size = window.size();
+		int[] origins = new int[size];
+		boolean[] updated = new boolean[size];
+		for (int i = 0; i < size; i++) {
+			Node<E> node = window.get(i);
+			int index = node.index;
+			origins[i] = (index >= 0 && index < old.length && old[index] == node) ? index : -1;
+			updated[i] = node.updated;
+		}
+		IterableChange<E> change = IterableChange.diff(this, old.length, i -> old[i].item, origins, updated, size);
+		if (!change.isEmpty()) fireChange(change);
+	}
+
+	private int compare(Node<E> n1, Node<E> n2) {
+		int res = comparator.compare(n1.item, n2.item);
+		return (res != 0) ? res : Long.compare(n1.serial, n2.serial);
+	}
+
+	private void push(Node<E> node) {
+		if (heapSize == heap.length) heap = Arrays.copyOf(heap, heapSize * 2);
+		heap[heapSize] = node;
+		node.heapIndex = heapSize++;
+		siftUp(node.heapIndex);
+	}
+
+	private void removeFromHeap(int index) {
+		Node<E> last = heap[--heapSize];
+		heap[heapSize] = null;
+		if (index < heapSize) {
+			heap[index] = last;
+			last.heapIndex = index;
+			siftDown(siftUp(index));
+		}
+	}
+
+	/**
+	 * @return the new index of the node that was at the given index
+	 */
+	private int siftUp(int index) {
+		Node<E> node = heap[index];
+		while (index > 0) {
+			int parent = (index - 1) >>> 1;
+			if (compare(node, heap[parent]) >= 0) break;
+			heap[index] = heap[parent];
+			heap[index].heapIndex = index;
+			index = parent;
+		}
+		heap[index] = node;
+		node.heapIndex = index;
+		return index;
+	}
+
+	private void siftDown(int index) {
+		Node<E> node = heap[index];
+		int half = heapSize >>> 1;
+		while (index < half) {
+			int child = (index << 1) + 1;
+			int right = child + 1;
+			if (right < heapSize && compare(heap[right], heap[child]) < 0) child = right;
+			if (compare(heap[child], node) >= 0) break;
+			heap[index] = heap[child];
+			heap[index].heapIndex = index;
+			index = child;
+		}
+		heap[index] = node;
+		node.heapIndex = index;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <E> Node<E>[] newHeap(int size) {
+		return (Node<E>[]) new Node<?>[size];
+	}
+
+	//================================================================================
+	// Overridden Methods
+	//================================================================================
+
+	/**
+	 * Each sub-change of the source is notified as a separate change, if it involves the window.
+	 * <p>
+	 * Removed and updated elements are removed first, then the window is refilled, and finally added and updated
+	 * elements are added. Permutations don't change this list.
+	 */
+	@Override
+	protected void sourceChanged(ListChangeListener.Change<? extends E> c) {
+		while (c.next()) {
+			int from = c.getFrom();
+			int to = c.getTo();
+			if (c.wasPermutated()) {
+				List<Node<E>> moved = new ArrayList<>(nodes.subList(from, to));
+				for (int i = from; i < to; i++) {
+					nodes.set(c.getPermutation(i), moved.get(i - from));
+				}
+				continue;
+			}
+
+			List<Node<E>> added;
+			if (c.wasUpdated()) {
+				added = nodes.subList(from, to);
+				for (Node<E> node : added) {
+					node.updated = true;
+					remove(node);
+				}
+			} else {
+				int removedSize = c.getRemovedSize();
+				List<Node<E>> removed = nodes.subList(from, from + removedSize);
+				for (Node<E> node : removed) {
+					remove(node);
+				}
+				added = new ArrayList<>(to - from);
+				for (int i = from; i < to; i++) {
+					added.add(new Node<>(getSource().get(i), serial++));
+				}
+				if (removedSize == added.size()) {
+					for (int i = from; i < to; i++) {
+						nodes.set(i, added.get(i - from));
+					}
+				} else {
+					removed.clear();
+					nodes.addAll(from, added);
+				}
+			}
+			refill();
+			for (Node<E> node : added) {
+				add(node);
+			}
+			commit();
+			if (c.wasUpdated()) {
+				for (Node<E> node : added) {
+					node.updated = false;
+				}
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p></p>
+	 * Source indexes are not tracked, so this searches the element in the source, in O(n).
+	 */
+	@Override
+	public int getSourceIndex(int index) {
+		Node<E> node = window.get(index);
+		for (int i = 0; i < nodes.size(); i++) {
+			if (nodes.get(i) == node) return i;
+		}
+		return -1;
+	}
+
+	@Override
+	public int getViewIndex(int index) {
+		if (index < 0 || index >= nodes.size()) return -1;
+		Node<E> node = nodes.get(index);
+		return node.inWindow ? window.indexOf(node) : -1;
+	}
+
+	@Override
+	public E get(int index) {
+		return window.get(index).item;
+	}
+
+	@Override
+	public int size() {
+		return window.size();
+	}
+
+	//================================================================================
+	// Getters/Setters
+	//================================================================================
+	public int getK() {
+		return k.get();
+	}
+
+	/**
+	 * Specifies the maximum number of elements of this list, negative values are treated as 0.
+	 */
+	public IntegerProperty kProperty() {
+		return k;
+	}
+
+	public void setK(int k) {
+		this.k.set(k);
+	}
+
+	//================================================================================
+	// Internal Classes
+	//================================================================================
+
+	/**
+	 * An element of the source, with its position in the heap or the window.
+	 */
+	private static class Node<E> {
+		private final E item;
+		private final long serial;
+		private boolean inWindow = false;
+		private int heapIndex = -1;
+		private int index = -1;
+		private boolean updated = false;
+
+		Node(E item, long serial) {
+			this.item = item;
+			this.serial = serial;
+		}
+	}
+}
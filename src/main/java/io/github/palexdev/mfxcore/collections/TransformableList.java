@@ -20,6 +20,9 @@ package io.github.palexdev.mfxcore.collections;
 
 import io.github.palexdev.mfxcore.base.properties.functional.ComparatorProperty;
 import io.github.palexdev.mfxcore.base.properties.functional.PredicateProperty;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.collections.transformation.FilteredList;
@@ -27,9 +30,12 @@ import javafx.collections.transformation.SortedList;
 import javafx.collections.transformation.TransformationList;
 
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 /**
  * A {@code TransformableList} is a particular type of List which wraps another
@@ -66,32 +72,68 @@ import java.util.stream.IntStream;
  * }
  * </pre>
  * <p>
- * Check {@link #computeIndexes()} documentation to see how indexes are calculated.
+ * Check {@link #computeIndexes(List, Predicate, Comparator, SortKeys, boolean)} documentation to see how indexes are calculated.
  * <p></p>
- * <b>IMPORTANT:</b> If using a reversed comparator please use {@link #setComparator(Comparator, boolean)} with 'true' as argument,
- * as {@link #setComparator(Comparator)} will always assume it is a natural order comparator. This is needed to make {@link #sourceToView(int)}
- * properly work as it uses a binary search algorithm to find the right index.
+ * When there is no predicate, no comparator and the order is not reversed, the list is in "pass-through" mode:
+ * the arrays are released, {@link #get(int)} and {@link #size()} are forwarded to the source, and so are the source's changes.
+ * This way an untransformed list costs no memory and no indirection.
+ * <p></p>
+ * The order can also be reversed with {@link #setReversed(boolean)}, which is a simple reversal of the indexes.
+ * When the items stay the same, but their order changes, for example because the comparator changed,
+ * listeners are notified with a permutation rather than with a replacement of the whole list.
+ * <p></p>
+ * The transformed indexes are stored in a primitive array, along with the inverse mapping (from the source list to the
+ * transformed list) which is rebuilt lazily after changes. This means that {@link #viewToSource(int)} is O(1), and
+ * {@link #sourceToView(int)} is O(1) too, except for the first call after a change, which rebuilds the mapping in O(n).
+ * <p></p>
+ * Comparators that sort the items by a key, which may be expensive to compute, can be set with
+ * {@link #setComparator(Function, Comparator)}. In such case keys are computed only once per item and cached,
+ * see {@link KeyComparator}.
+ * <p></p>
+ * For large sources, the list can also compute the indexes in parallel, see {@link #setParallel(boolean)}, or
+ * asynchronously, see {@link #setExecutor(Executor)}.
  *
  * @param <T> the items' type
  */
 public class TransformableList<T> extends TransformationList<T, T> {
 	//================================================================================
-	// Constructors
+	// Properties
 	//================================================================================
-	private final List<Integer> indexes = new ArrayList<>();
+	private static final int[] EMPTY = new int[0];
+	private int[] indexes = EMPTY;
+	private int size = 0;
+	private int[] reverse = EMPTY;
+	private boolean reverseValid = false;
+	private boolean identity = false;
 	private boolean reversed = false;
+	private boolean reversedApplied = false;
+	private Predicate<? super T> filter;
+	private Comparator<? super T> sorter;
+	private SortKeys<T> sortKeys;
+
+	private boolean parallel = false;
+	private int parallelThreshold = 100_000;
+	private ForkJoinPool parallelPool = ForkJoinPool.commonPool();
+	private double bulkThreshold = 0.05;
+
+	private Executor executor;
+	private long generation = 0;
+	private final ReadOnlyBooleanWrapper computing = new ReadOnlyBooleanWrapper();
+
+	private int batchDepth = 0;
+	private boolean updatePending = false;
 
 	private final PredicateProperty<T> predicate = new PredicateProperty<>() {
 		@Override
 		protected void invalidated() {
-			update();
+			requestUpdate();
 		}
 	};
 
 	private final ComparatorProperty<T> comparator = new ComparatorProperty<>() {
 		@Override
 		protected void invalidated() {
-			update();
+			requestUpdate();
 		}
 	};
 
@@ -108,9 +150,11 @@ public class TransformableList<T> extends TransformationList<T, T> {
 
 	public TransformableList(ObservableList<? extends T> source, Predicate<T> predicate, Comparator<T> comparator) {
 		super(source);
-		setPredicate(predicate);
-		setComparator(comparator);
-		update();
+		batch(() -> {
+			setPredicate(predicate);
+			setComparator(comparator);
+			requestUpdate();
+		});
 	}
 
 	//================================================================================
@@ -135,42 +179,587 @@ public class TransformableList<T> extends TransformationList<T, T> {
 		return getViewIndex(index);
 	}
 
+	/**
+	 * Executes the given action deferring any update of the transformed indexes until it ends.
+	 * <p>
+	 * This allows changing the predicate and the comparator, or any of them multiple times, and recompute the indexes
+	 * only once, at the end. In other words, listeners will receive only one change for the whole action.
+	 * <p>
+	 * Batches can be nested, the update is executed when the outermost one ends, even if the action throws an exception.
+	 */
+	public void batch(Runnable action) {
+		batchDepth++;
+		try {
+			action.run();
+		} finally {
+			batchDepth--;
+			if (batchDepth == 0 && updatePending) {
+				updatePending = false;
+				update();
+			}
+		}
+	}
+
+	/**
+	 * Calls {@link #update()} or, if a {@link #batch(Runnable)} is running, defers it to the end of the batch.
+	 */
+	private void requestUpdate() {
+		if (batchDepth > 0) {
+			updatePending = true;
+			return;
+		}
+		update();
+	}
+
 	/**
 	 * Responsible for updating the transformed indexes when the
 	 * predicate or the comparator change.
+	 * <p>
+	 * If an {@link Executor} has been set, the computation is delegated to {@link #updateAsync(Predicate, Comparator, boolean)}.
 	 */
 	private void update() {
-		indexes.clear();
-		indexes.addAll(computeIndexes());
-		if (this.hasListeners()) {
-			this.fireChange(new NonIterableChange.GenericAddRemoveChange<>(0, size(), new ArrayList<>(this), this));
+		Predicate<? super T> filter = getPredicate();
+		Comparator<? super T> sorter = getComparator();
+		boolean reversed = this.reversed;
+		if (filter == null && sorter == null && !reversed) {
+			generation++;
+			computing.set(false);
+			applyIdentity();
+			return;
 		}
+		if (executor != null) {
+			updateAsync(filter, sorter, reversed);
+			return;
+		}
+
+		generation++;
+		computing.set(false);
+		SortKeys<T> keys = keysFor(sorter);
+		apply(computeIndexes(getSource(), filter, sorter, keys, reversed), filter, sorter, keys, reversed);
+	}
+
+	/**
+	 * Computes the new indexes on the {@link #getExecutor()}, working on a snapshot of the source list.
+	 * <p>
+	 * The result is published on the JavaFX thread, but only if in the meantime no other computation has been started,
+	 * because the predicate, the comparator or the source changed. Each computation is identified by a generation counter,
+	 * results from older generations are simply discarded.
+	 * <p>
+	 * While a computation is pending, the {@link #computingProperty()} is true.
+	 */
+	private void updateAsync(Predicate<? super T> filter, Comparator<? super T> sorter, boolean reversed) {
+		long gen = ++generation;
+		List<T> snapshot = new ArrayList<>(getSource());
+		SortKeys<T> current = keysFor(sorter);
+		SortKeys<T> keys = (current != null && current == sortKeys) ? new SortKeys<>(current) : current;
+		computing.set(true);
+		executor.execute(() -> {
+			try {
+				int[] computed = computeIndexes(snapshot, filter, sorter, keys, reversed);
+				Platform.runLater(() -> {
+					if (gen != generation) return;
+					apply(computed, filter, sorter, keys, reversed);
+					computing.set(false);
+				});
+			} catch (Throwable ex) {
+				Platform.runLater(() -> {
+					if (gen == generation) computing.set(false);
+				});
+				throw ex;
+			}
+		});
+	}
+
+	/**
+	 * Replaces the transformed indexes with the given ones, computed with the given predicate and comparator,
+	 * which from now on are also used to process the source changes. The given {@link SortKeys} become the
+	 * current cache of sort keys.
+	 * <p>
+	 * If the new indexes contain the same items, just in a different order, the change is notified as a permutation.
+	 * Otherwise, the change is notified as a replacement of the whole list. In such case the removed items are not copied,
+	 * instead they are a lazy view over the previous indexes, see {@link RemovedList}.
+	 */
+	private void apply(int[] computed, Predicate<? super T> filter, Comparator<? super T> sorter, SortKeys<T> keys, boolean reversed) {
+		boolean permutation = isPermutation(computed);
+		boolean wasIdentity = identity;
+		int[] oldReverse = (permutation && !wasIdentity) ? reverse() : null;
+		int[] oldIndexes = indexes;
+		int oldSize = wasIdentity ? getSource().size() : size;
+		identity = false;
+		this.filter = filter;
+		this.sorter = sorter;
+		this.sortKeys = keys;
+		this.reversedApplied = reversed;
+		indexes = computed;
+		size = indexes.length;
+		reverseValid = false;
+
+		if (!this.hasListeners()) return;
+		if (permutation) {
+			int[] perm = new int[size];
+			boolean changed = false;
+			for (int i = 0; i < size; i++) {
+				int index = indexes[i];
+				int oldPosition = wasIdentity ? index : oldReverse[index];
+				perm[oldPosition] = i;
+				changed |= oldPosition != i;
+			}
+			if (changed) this.fireChange(new NonIterableChange.SimplePermutationChange<>(0, size, perm, this));
+		} else {
+			List<T> removed = new RemovedList<>(getSource(), wasIdentity ? null : oldIndexes, oldSize);
+			this.fireChange(new NonIterableChange.GenericAddRemoveChange<>(0, size, removed, this));
+		}
+	}
+
+	/**
+	 * Switches to the pass-through mode, releasing the indexes and the inverse mapping.
+	 * <p>
+	 * If the list contained all the items of the source, the change is notified as a permutation,
+	 * otherwise as a replacement of the whole list.
+	 */
+	private void applyIdentity() {
+		if (identity) return;
+		int[] oldIndexes = indexes;
+		int oldSize = size;
+		int sourceSize = getSource().size();
+		identity = true;
+		filter = null;
+		sorter = null;
+		sortKeys = null;
+		reversedApplied = false;
+		indexes = EMPTY;
+		reverse = EMPTY;
+		reverseValid = false;
+		size = 0;
+
+		if (!hasListeners()) return;
+		if (oldSize == sourceSize && oldSize > 0) {
+			boolean changed = false;
+			for (int i = 0; i < oldSize; i++) {
+				changed |= oldIndexes[i] != i;
+			}
+			if (changed) fireChange(new NonIterableChange.SimplePermutationChange<>(0, oldSize, Arrays.copyOf(oldIndexes, oldSize), this));
+		} else {
+			List<T> removed = new RemovedList<>(getSource(), oldIndexes, oldSize);
+			fireChange(new NonIterableChange.GenericAddRemoveChange<>(0, sourceSize, removed, this));
+		}
+	}
+
+	/**
+	 * @return whether the given indexes contain the same items of the current ones, checked with the inverse mapping
+	 */
+	private boolean isPermutation(int[] computed) {
+		if (identity) return computed.length == getSource().size() && computed.length > 0;
+		if (computed.length != size || size == 0) return false;
+		int[] reverse = reverse();
+		for (int index : computed) {
+			if (reverse[index] < 0) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Reverses the order of the current indexes, O(n), and notifies the change as a permutation.
+	 */
+	private void reverseIndexes() {
+		reversedApplied = reversed;
+		if (size < 2) return;
+		int[] perm = new int[size];
+		for (int i = 0, j = size - 1; i < j; i++, j--) {
+			int tmp = indexes[i];
+			indexes[i] = indexes[j];
+			indexes[j] = tmp;
+		}
+		for (int i = 0; i < size; i++) {
+			perm[i] = size - 1 - i;
+		}
+		reverseValid = false;
+		if (hasListeners()) fireChange(new NonIterableChange.SimplePermutationChange<>(0, size, perm, this));
 	}
 
 	/**
 	 * Core method of TransformableLists. This is responsible for computing
-	 * the transformed indexes by creating a {@link SortedMap} and mapping every index from 0 to source size
-	 * to its item. Before mapping, items are filtered with the given predicate, {@link #predicateProperty()}.
-	 * Before returning, the map's entry set is sorted by its values with the given comparator, {@link #comparatorProperty()}.
-	 * Finally, returns the map's key set, this set contains the transformed indexes, filtered and sorted.
-	 */
-	private Collection<Integer> computeIndexes() {
-		Predicate<? super T> filter = this.getPredicate();
-		Comparator<? super T> sorter = this.getComparator();
-		SortedMap<Integer, T> sourceMap;
-		if (filter != null) {
-			sourceMap = IntStream.range(0, getSource().size())
-					.filter((index) -> filter.test(getSource().get(index)))
-					.collect(TreeMap::new, (map, index) -> map.put(index, getSource().get(index)), TreeMap::putAll);
+	 * the transformed indexes of the given list, as an array of primitive ints.
+	 * <p>
+	 * Every index from 0 to the list's size is tested with the given predicate,
+	 * the ones that pass it are collected in ascending order. If the comparator is not null,
+	 * the collected indexes are then sorted by their items, see {@link IndexSorter}. Items that are "equal" for the
+	 * comparator retain the source order.
+	 * <p>
+	 * If the comparator is a {@link KeyComparator}, the given {@link SortKeys} are used to cache the items' keys,
+	 * the missing ones are computed before sorting.
+	 * <p>
+	 * If the parallel mode is enabled and the list's size is greater or equal to {@link #getParallelThreshold()},
+	 * all steps are executed on the {@link #getParallelPool()}, the result is the same.
+	 * <p>
+	 * Finally, if the order is reversed, the indexes are simply reversed.
+	 */
+	private int[] computeIndexes(List<? extends T> source, Predicate<? super T> filter, Comparator<? super T> sorter, SortKeys<T> keys, boolean reversed) {
+		int sourceSize = source.size();
+		boolean parallel = isParallel() && sourceSize >= parallelThreshold;
+
+		int[] computed;
+		if (parallel && filter != null) {
+			computed = parallelPool.invoke(new FilterTask<>(source, filter, 0, sourceSize, leafSize(sourceSize)));
 		} else {
-			sourceMap = IntStream.range(0, getSource().size())
-					.collect(TreeMap::new, (map, index) -> map.put(index, getSource().get(index)), TreeMap::putAll);
+			computed = new int[sourceSize];
+			int n = 0;
+			for (int i = 0; i < sourceSize; i++) {
+				if (filter == null || filter.test(source.get(i))) computed[n++] = i;
+			}
+			if (n != sourceSize) computed = Arrays.copyOf(computed, n);
+		}
+
+		if (sorter != null) {
+			IndexSorter.IndexComparator ic;
+			if (keys != null) {
+				if (parallel) {
+					parallelPool.invoke(new KeysTask<>(keys, source, computed, 0, computed.length, leafSize(computed.length)));
+				} else {
+					keys.fill(source, computed, 0, computed.length);
+				}
+				KeyComparator<?, ?> kc = (KeyComparator<?, ?>) sorter;
+				ic = (i1, i2) -> {
+					int res = kc.compareKeys(keys.peek(i1), keys.peek(i2));
+					return (res != 0) ? res : Integer.compare(i1, i2);
+				};
+			} else {
+				ic = (i1, i2) -> compare(sorter, null, source.get(i1), i1, source.get(i2), i2);
+			}
+			if (parallel) {
+				IndexSorter.parallelSort(computed, 0, computed.length, ic, parallelPool);
+			} else {
+				IndexSorter.sort(computed, 0, computed.length, ic);
+			}
+		}
+		if (reversed) {
+			for (int i = 0, j = computed.length - 1; i < j; i++, j--) {
+				int tmp = computed[i];
+				computed[i] = computed[j];
+				computed[j] = tmp;
+			}
+		}
+		return computed;
+	}
+
+	/**
+	 * @return the number of items each {@link FilterTask} should test sequentially, depends on the
+	 * pool's parallelism
+	 */
+	private int leafSize(int sourceSize) {
+		return Math.max(1024, sourceSize / (parallelPool.getParallelism() << 2));
+	}
+
+	/**
+	 * @return the {@link SortKeys} to use with the given comparator, if it's a {@link KeyComparator}, null otherwise.
+	 * The current cache is reused as long as the key extractor is the same
+	 */
+	private SortKeys<T> keysFor(Comparator<? super T> sorter) {
+		if (!(sorter instanceof KeyComparator)) return null;
+		@SuppressWarnings("unchecked")
+		KeyComparator<T, ?> kc = (KeyComparator<T, ?>) sorter;
+		Function<? super T, ?> extractor = kc.getKeyExtractor();
+		if (sortKeys != null && sortKeys.extractor == extractor) return sortKeys;
+		return new SortKeys<>(extractor, getSource().size());
+	}
+
+	/**
+	 * @return the inverse mapping, from the source list to the transformed list, where indexes of the source list
+	 * that are not in the transformed list are mapped to -1.
+	 * <p>
+	 * Rebuilding the mapping costs O(n), where n is the source's size, so changes only invalidate it, and it's
+	 * rebuilt here, the first time it's needed after them. Consecutive changes, with no {@link #getViewIndex(int)}
+	 * in between, pay for it only once.
+	 */
+	private int[] reverse() {
+		if (reverseValid) return reverse;
+		int sourceSize = getSource().size();
+		if (reverse.length < sourceSize || reverse.length > sourceSize * 2) {
+			reverse = new int[sourceSize];
+		}
+		Arrays.fill(reverse, 0, sourceSize, -1);
+		for (int i = 0; i < size; i++) {
+			reverse[indexes[i]] = i;
+		}
+		reverseValid = true;
+		return reverse;
+	}
+
+	/**
+	 * Handles the removal of items from the source list.
+	 * <p>
+	 * The indexes pointing to the removed range are dropped, the ones after the range are shifted back
+	 * by the number of removed items. All of this is done in a single pass.
+	 */
+	private void sourceRemoved(ListChangeListener.Change<? extends T> c) {
+		int from = c.getFrom();
+		int removedSize = c.getRemovedSize();
+		int to = from + removedSize;
+		List<? extends T> removed = c.getRemoved();
+		if (sortKeys != null) sortKeys.removed(from, removedSize);
+
+		int w = 0;
+		for (int i = 0; i < size; i++) {
+			int index = indexes[i];
+			if (index >= from && index < to) {
+				nextRemove(w, removed.get(index - from));
+				continue;
+			}
+			indexes[w++] = index >= to ? index - removedSize : index;
+		}
+		size = w;
+	}
+
+	/**
+	 * Handles the addition of items to the source list.
+	 * <p>
+	 * The indexes after the added range are shifted forward by the number of added items,
+	 * the added indexes are collected in the given buffer, to be later inserted by {@link #insertPending(IntBuffer)}.
+	 */
+	private void sourceAdded(ListChangeListener.Change<? extends T> c, IntBuffer pending) {
+		int from = c.getFrom();
+		int to = c.getTo();
+		int addedSize = to - from;
+		if (sortKeys != null) sortKeys.added(from, addedSize);
+		for (int i = 0; i < size; i++) {
+			if (indexes[i] >= from) indexes[i] += addedSize;
+		}
+		pending.addRange(from, to);
+	}
+
+	/**
+	 * @return whether the given change is made only of updates
+	 */
+	private boolean isUpdateOnly(ListChangeListener.Change<? extends T> c) {
+		boolean updateOnly = true;
+		while (c.next()) {
+			if (!c.wasUpdated()) {
+				updateOnly = false;
+				break;
+			}
+		}
+		c.reset();
+		return updateOnly;
+	}
+
+	/**
+	 * Handles updates in the source list, when mixed with other kind of changes.
+	 * <p>
+	 * Updated items are removed and collected in the given buffer, to be re-inserted by {@link #insertPending(IntBuffer)},
+	 * since after the update they may not pass the predicate anymore, or their position may have changed.
+	 */
+	private void sourceUpdated(ListChangeListener.Change<? extends T> c, IntBuffer pending) {
+		int from = c.getFrom();
+		int to = c.getTo();
+		if (sortKeys != null) sortKeys.invalidate(from, to);
+
+		int w = 0;
+		for (int i = 0; i < size; i++) {
+			int index = indexes[i];
+			if (index >= from && index < to) {
+				nextRemove(w, getSource().get(index));
+				continue;
+			}
+			indexes[w++] = index;
+		}
+		size = w;
+		pending.addRange(from, to);
+	}
+
+	/**
+	 * Handles changes of the source list made only of updates, typically fired by lists with an extractor when
+	 * a property of some items changes.
+	 * <p>
+	 * Only the updated items are processed: the ones in this list are taken out of the indexes, then the ones that
+	 * (still) pass the predicate are inserted back at their position, see {@link #insertPending(IntBuffer, boolean)}.
+	 * The other items keep their order, so there's no need to sort them again.
+	 * <p>
+	 * The change is then computed by comparing the old and new positions of the items: items that don't pass the predicate
+	 * anymore are removed, items that pass it now are added, items that moved are notified as a permutation
+	 * and all the updated items that are still in the list are notified as updated.
+	 */
+	private void sourceUpdatedOnly(ListChangeListener.Change<? extends T> c) {
+		IntBuffer updated = new IntBuffer();
+		BitSet isUpdated = new BitSet();
+		while (c.next()) {
+			int from = c.getFrom();
+			int to = c.getTo();
+			if (sortKeys != null) sortKeys.invalidate(from, to);
+			updated.addRange(from, to);
+			isUpdated.set(from, to);
 		}
 
-		return sorter != null ? sourceMap.entrySet().stream()
-				.sorted((o1, o2) -> sorter.compare(o1.getValue(), o2.getValue()))
-				.map(Map.Entry::getKey)
-				.collect(Collectors.toList()) : sourceMap.keySet();
+		int oldSize = size;
+		int[] oldIndexes = Arrays.copyOf(indexes, size);
+		int[] reverse = reverse();
+		int w = 0;
+		for (int i = 0; i < size; i++) {
+			int index = indexes[i];
+			if (!isUpdated.get(index)) indexes[w++] = index;
+		}
+		size = w;
+		insertPending(updated, false);
+
+		int[] origins = new int[size];
+		boolean[] updatedFlags = new boolean[size];
+		for (int i = 0; i < size; i++) {
+			int index = indexes[i];
+			origins[i] = reverse[index];
+			updatedFlags[i] = isUpdated.get(index);
+		}
+		reverseValid = false;
+
+		IterableChange<T> change = IterableChange.diff(this, oldSize, j -> getSource().get(oldIndexes[j]), origins, updatedFlags, size);
+		if (!change.isEmpty()) fireChange(change);
+	}
+
+	/**
+	 * Handles permutations of the source list.
+	 * <p>
+	 * The indexes in the permutated range are remapped to their new position. The order is restored later by
+	 * {@link #sortIndexes()}, because other sub-changes may follow the permutation in the same change, and the items
+	 * can only be compared once the indexes are consistent with the source.
+	 */
+	private void sourcePermutated(ListChangeListener.Change<? extends T> c) {
+		int from = c.getFrom();
+		int to = c.getTo();
+		if (sortKeys != null) sortKeys.permutate(c);
+		for (int i = 0; i < size; i++) {
+			int index = indexes[i];
+			if (index >= from && index < to) indexes[i] = c.getPermutation(index);
+		}
+	}
+
+	/**
+	 * Sorts the indexes again after a permutation of the source, so that items which are "equal"
+	 * (or all of them if the comparator is null) keep following the source order.
+	 * The resulting movement is notified as a permutation.
+	 */
+	private void sortIndexes() {
+		int[] oldOrder = Arrays.copyOf(indexes, size);
+		IndexSorter.sort(indexes, 0, size, (i1, i2) -> compare(getSource().get(i1), i1, getSource().get(i2), i2));
+		reverseValid = false;
+		int[] reverse = reverse();
+
+		int[] perm = new int[size];
+		boolean changed = false;
+		for (int i = 0; i < size; i++) {
+			perm[i] = reverse[oldOrder[i]];
+			changed |= perm[i] != i;
+		}
+		if (changed) nextPermutation(0, size, perm);
+	}
+
+	/**
+	 * Filters the given source indexes with the current predicate, and inserts the ones that pass it
+	 * at their position in the transformed indexes.
+	 * <p>
+	 * If the list is sorted and the number of items to insert is small compared to the list's size,
+	 * see {@link #getBulkThreshold()}, each item's position is found with a binary search and the item is inserted there.
+	 * This way the list keeps its order without sorting it again.
+	 * <p>
+	 * Otherwise, the items to insert are sorted (there's no need to if the list is not sorted, since the pending indexes
+	 * are in ascending order), and then merged with the current indexes in a single pass.
+	 */
+	private void insertPending(IntBuffer pending) {
+		insertPending(pending, true);
+	}
+
+	/**
+	 * Same as {@link #insertPending(IntBuffer)}, but allows to not notify the additions,
+	 * for callers that compute the change by themselves.
+	 */
+	private void insertPending(IntBuffer pending, boolean notify) {
+		if (pending.isEmpty()) return;
+
+		int[] passing = new int[pending.size()];
+		int k = 0;
+		for (int p = 0; p < pending.size(); p++) {
+			int index = pending.get(p);
+			if (filter == null || filter.test(getSource().get(index))) passing[k++] = index;
+		}
+		if (k == 0) return;
+
+		boolean ordered = sorter != null || reversedApplied;
+		if (ordered && k <= bulkThreshold * size) {
+			for (int p = 0; p < k; p++) {
+				int index = passing[p];
+				int pos = findPosition(getSource().get(index), index);
+				if (size == indexes.length) {
+					indexes = Arrays.copyOf(indexes, Math.max(8, size + (size >> 1)));
+				}
+				System.arraycopy(indexes, pos, indexes, pos + 1, size - pos);
+				indexes[pos] = index;
+				size++;
+				if (notify) nextAdd(pos, pos + 1);
+			}
+			return;
+		}
+
+		IndexSorter.IndexComparator ic = ordered ?
+				(i1, i2) -> compare(getSource().get(i1), i1, getSource().get(i2), i2) :
+				Integer::compare;
+		if (ordered) IndexSorter.sort(passing, 0, k, ic);
+
+		int[] merged = new int[size + k];
+		int n = 0;
+		int i = 0;
+		for (int p = 0; p < k; p++) {
+			int index = passing[p];
+			while (i < size && ic.compare(indexes[i], index) < 0) {
+				merged[n++] = indexes[i++];
+			}
+			if (notify) nextAdd(n, n + 1);
+			merged[n++] = index;
+		}
+		while (i < size) {
+			merged[n++] = indexes[i++];
+		}
+		indexes = merged;
+		size = n;
+	}
+
+	/**
+	 * Binary search to find the position at which the given item, at the given source index, should be inserted
+	 * in the transformed indexes.
+	 */
+	private int findPosition(T item, int index) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			int midIndex = indexes[mid];
+			if (compare(item, index, getSource().get(midIndex), midIndex) > 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Compares two items with the current comparator and cached keys,
+	 * see {@link #compare(Comparator, SortKeys, Object, int, Object, int)}.
+	 */
+	private int compare(T item1, int index1, T item2, int index2) {
+		int res = compare(sorter, sortKeys, item1, index1, item2, index2);
+		return reversedApplied ? -res : res;
+	}
+
+	/**
+	 * Compares two items with the given comparator. If the {@link SortKeys} are not null, the comparator
+	 * is a {@link KeyComparator} and the cached keys are compared instead.
+	 * If the comparator is null or the items are "equal", falls back to comparing their indexes in the source list.
+	 */
+	private static <T> int compare(Comparator<? super T> sorter, SortKeys<T> keys, T item1, int index1, T item2, int index2) {
+		int res;
+		if (keys != null) {
+			res = ((KeyComparator<?, ?>) sorter).compareKeys(keys.get(index1, item1), keys.get(index2, item2));
+		} else {
+			res = (sorter != null) ? sorter.compare(item1, item2) : 0;
+		}
+		return (res != 0) ? res : Integer.compare(index1, index2);
 	}
 
 	public Predicate<? super T> getPredicate() {
@@ -201,33 +790,176 @@ public class TransformableList<T> extends TransformationList<T, T> {
 		return this.comparator;
 	}
 
+	/**
+	 * Sets the comparator used to sort the source list, and resets the {@link #isReversed()} flag.
+	 */
 	public void setComparator(Comparator<T> comparator) {
-		this.reversed = false;
-		this.comparator.set(comparator);
+		setComparator(comparator, false);
 	}
 
 	/**
-	 * This method is NECESSARY if using a reversed comparator,
-	 * a special flag is set to true and {@link #sourceToView(int)} behaves accordingly.
+	 * Sets a {@link KeyComparator} built from the given key extractor and key comparator, as the comparator
+	 * used to sort the source list.
+	 * <p>
+	 * Unlike {@link Comparator#comparing(Function, Comparator)}, the keys are computed only once per item, and cached
+	 * until the item is replaced or updated. Keys are also retained when setting another {@link KeyComparator} with the
+	 * same extractor.
+	 */
+	public <K> void setComparator(Function<? super T, ? extends K> keyExtractor, Comparator<? super K> keyComparator) {
+		setComparator(new KeyComparator<>(keyExtractor, keyComparator));
+	}
+
+	/**
+	 * Sets the comparator used to sort the source list, and whether the order should be reversed, see {@link #setReversed(boolean)}.
+	 * The list is updated only once.
 	 */
 	public void setComparator(Comparator<T> comparator, boolean reversed) {
-		this.reversed = reversed;
-		this.comparator.set(comparator);
+		batch(() -> {
+			setReversed(reversed);
+			this.comparator.set(comparator);
+		});
 	}
 
 	/**
-	 * Specifies if a reversed comparator is being used.
+	 * Specifies if the order of the list is reversed.
 	 */
 	public boolean isReversed() {
 		return reversed;
 	}
 
 	/**
-	 * Communicates to the transformed list, specifically to {@link #getViewIndex(int)},
-	 * if the list is sorted in reversed order.
+	 * Sets whether the order of the list is reversed. The reversed order is exactly the opposite of the normal one,
+	 * also for items that are "equal" for the comparator (or all of them if the comparator is null), which are in
+	 * reversed source order.
+	 * <p>
+	 * Note that this means that the flag must not be used together with a comparator that is already reversed,
+	 * otherwise the order is reversed twice.
+	 * <p>
+	 * Reversing the order doesn't sort the items again, the indexes are just reversed in O(n), and listeners are
+	 * notified with a permutation. If a {@link #batch(Runnable)} is running or an asynchronous computation is pending,
+	 * the order is updated along with them. If there's neither a predicate nor a comparator, disabling the flag
+	 * switches the list back to the pass-through mode.
 	 */
 	public void setReversed(boolean reversed) {
+		if (this.reversed == reversed) return;
 		this.reversed = reversed;
+		boolean toIdentity = !reversed && getPredicate() == null && getComparator() == null;
+		if (batchDepth > 0 || isComputing() || identity || toIdentity) {
+			requestUpdate();
+			return;
+		}
+		reverseIndexes();
+	}
+
+	/**
+	 * Specifies whether the indexes are computed in parallel for sources which size is
+	 * greater or equal to {@link #getParallelThreshold()}.
+	 */
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	/**
+	 * Enables or disables the parallel mode. When enabled, and the source is big enough,
+	 * the predicate is tested and the items are sorted on the {@link #getParallelPool()}.
+	 * <p>
+	 * Note that this means that both the predicate and the comparator must be thread-safe, and that the source
+	 * list must not be modified by other threads during the computation.
+	 * <p></p>
+	 * Disabled by default.
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	/**
+	 * Specifies the minimum size the source list must have for the indexes to be computed in parallel.
+	 */
+	public int getParallelThreshold() {
+		return parallelThreshold;
+	}
+
+	/**
+	 * Sets the minimum size the source list must have for the indexes to be computed in parallel.
+	 * <p></p>
+	 * By default, it is 100000.
+	 */
+	public void setParallelThreshold(int parallelThreshold) {
+		this.parallelThreshold = parallelThreshold;
+	}
+
+	/**
+	 * Specifies the {@link ForkJoinPool} used to compute the indexes in parallel.
+	 */
+	public ForkJoinPool getParallelPool() {
+		return parallelPool;
+	}
+
+	/**
+	 * Sets the {@link ForkJoinPool} used to compute the indexes in parallel.
+	 * <p></p>
+	 * By default, it is the {@link ForkJoinPool#commonPool()}.
+	 */
+	public void setParallelPool(ForkJoinPool parallelPool) {
+		this.parallelPool = Objects.requireNonNull(parallelPool);
+	}
+
+	/**
+	 * Specifies the ratio between the number of items added to a sorted list by a single source change,
+	 * and the list's size, above which the items are inserted in bulk rather than one by one.
+	 *
+	 * @see #insertPending(IntBuffer)
+	 */
+	public double getBulkThreshold() {
+		return bulkThreshold;
+	}
+
+	/**
+	 * Sets the ratio between the number of items added to a sorted list by a single source change,
+	 * and the list's size, above which the items are inserted in bulk rather than one by one.
+	 * <p>
+	 * Inserting an item costs a binary search plus shifting the items after it, so for a handful of items
+	 * it's much cheaper than sorting them and merging them with the whole list, but it degrades as
+	 * the number of items grows.
+	 * <p></p>
+	 * By default, it is 0.05.
+	 */
+	public void setBulkThreshold(double bulkThreshold) {
+		this.bulkThreshold = bulkThreshold;
+	}
+
+	/**
+	 * Specifies the {@link Executor} used to compute the indexes asynchronously.
+	 */
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Sets the {@link Executor} used to compute the indexes asynchronously. When set, changes to the
+	 * predicate or the comparator do not block the JavaFX thread, the list keeps its current state until
+	 * the new indexes are published, see {@link #computingProperty()}.
+	 * <p>
+	 * This mode is meant to be used from the JavaFX thread, since the results are published with {@link Platform#runLater(Runnable)}.
+	 * Also, the predicate and the comparator must be safe to use from the executor's threads.
+	 * <p></p>
+	 * By default, it is null, meaning that the indexes are computed synchronously.
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	public boolean isComputing() {
+		return computing.get();
+	}
+
+	/**
+	 * Specifies whether an asynchronous computation of the indexes is pending.
+	 *
+	 * @see #setExecutor(Executor)
+	 */
+	public ReadOnlyBooleanProperty computingProperty() {
+		return computing.getReadOnlyProperty();
 	}
 
 	//================================================================================
@@ -237,13 +969,59 @@ public class TransformableList<T> extends TransformationList<T, T> {
 	/**
 	 * {@inheritDoc}
 	 * <p></p>
-	 * Calls {@link #update()}.
+	 * The source change is translated into the minimal set of changes for this list, rather than recomputing
+	 * everything from scratch.
+	 * <p>
+	 * This is done in two steps. First, every sub-change is processed in order: removed items are dropped from the
+	 * transformed indexes, the remaining ones are shifted accordingly and the indexes of added/updated items are collected.
+	 * Once the indexes are consistent with the new state of the source, the collected items are filtered and inserted
+	 * at their position, see {@link #insertPending(IntBuffer)}.
+	 * <p>
+	 * The predicate is tested only for the added items, and the comparator is only used to find their position,
+	 * so a change of k items costs O(k log n) predicate/comparator calls, instead of re-filtering and re-sorting
+	 * the entire source. However, the transformed indexes store source positions, so each change still costs a single
+	 * O(n) pass over the indexes to drop/shift them, where n is the size of this list. This is a loop over a
+	 * primitive array, far cheaper than the calls it avoids. The inverse mapping is rebuilt lazily, see {@link #reverse()}.
+	 * <p></p>
+	 * Changes made only of updates are handled separately, see {@link #sourceUpdatedOnly(ListChangeListener.Change)}.
+	 * <p>
+	 * Note that changes are always processed with the predicate and comparator of the last completed computation.
+	 * If an asynchronous computation is pending, see {@link #setExecutor(Executor)}, it is restarted, since its
+	 * snapshot of the source is now outdated.
 	 */
 	@Override
 	protected void sourceChanged(ListChangeListener.Change<? extends T> c) {
+		if (identity) {
+			fireChange(new SourceAdapterChange<>(this, c));
+			if (isComputing()) update();
+			return;
+		}
+		if (isUpdateOnly(c)) {
+			sourceUpdatedOnly(c);
+			if (isComputing()) update();
+			return;
+		}
+
 		beginChange();
-		update();
+		IntBuffer pending = new IntBuffer();
+		boolean permutated = false;
+		while (c.next()) {
+			if (c.wasPermutated()) {
+				sourcePermutated(c);
+				permutated = true;
+			} else if (c.wasUpdated()) {
+				sourceUpdated(c, pending);
+			} else {
+				if (c.wasRemoved()) sourceRemoved(c);
+				if (c.wasAdded()) sourceAdded(c, pending);
+			}
+		}
+		if (permutated) sortIndexes();
+		insertPending(pending);
+		reverseValid = false;
 		endChange();
+
+		if (isComputing()) update();
 	}
 
 	/**
@@ -251,7 +1029,7 @@ public class TransformableList<T> extends TransformationList<T, T> {
 	 */
 	@Override
 	public int size() {
-		return indexes.size();
+		return identity ? getSource().size() : size;
 	}
 
 	/**
@@ -261,27 +1039,298 @@ public class TransformableList<T> extends TransformationList<T, T> {
 	 */
 	@Override
 	public T get(int index) {
-		if (index > size()) {
-			throw new IndexOutOfBoundsException(index);
-		} else {
-			return getSource().get(indexes.get(index));
-		}
+		if (identity) return getSource().get(index);
+		return getSource().get(getSourceIndex(index));
 	}
 
 	@Override
 	public int getSourceIndex(int index) {
-		if (index > size()) {
-			throw new IndexOutOfBoundsException(index);
-		} else {
-			return indexes.get(index);
-		}
+		if (identity) return Objects.checkIndex(index, getSource().size());
+		Objects.checkIndex(index, size);
+		return indexes[index];
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p></p>
+	 * This is a simple lookup in the inverse mapping (or the index itself in pass-through mode),
+	 * returns -1 if the item at the given index is not in the transformable list.
+	 */
 	@Override
 	public int getViewIndex(int index) {
-		int viewIndex = reversed ?
-				Collections.binarySearch(indexes, index, Collections.reverseOrder()) :
-				Collections.binarySearch(indexes, index);
-		return viewIndex < 0 ? -1 : viewIndex;
+		if (index < 0 || index >= getSource().size()) return -1;
+		if (identity) return index;
+		return reverse()[index];
+	}
+
+	//================================================================================
+	// Internal Classes
+	//================================================================================
+
+	/**
+	 * A {@link Comparator} which compares items by a key, extracted by the given function, using the given key comparator.
+	 * <p>
+	 * When set on a {@link TransformableList}, the keys are not extracted at each comparison, instead they are cached
+	 * by the list, see {@link #setComparator(Function, Comparator)}. This means that the key extractor should return
+	 * the same key for an item, until the item is updated.
+	 */
+	public static class KeyComparator<T, K> implements Comparator<T> {
+		private final Function<? super T, ? extends K> keyExtractor;
+		private final Comparator<? super K> keyComparator;
+
+		public KeyComparator(Function<? super T, ? extends K> keyExtractor, Comparator<? super K> keyComparator) {
+			this.keyExtractor = Objects.requireNonNull(keyExtractor);
+			this.keyComparator = Objects.requireNonNull(keyComparator);
+		}
+
+		@SuppressWarnings("unchecked")
+		int compareKeys(Object key1, Object key2) {
+			return keyComparator.compare((K) key1, (K) key2);
+		}
+
+		@Override
+		public int compare(T o1, T o2) {
+			return keyComparator.compare(keyExtractor.apply(o1), keyExtractor.apply(o2));
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * <p></p>
+		 * Overridden to return a {@link KeyComparator} with the same extractor, so that cached keys can be reused.
+		 */
+		@Override
+		public Comparator<T> reversed() {
+			return new KeyComparator<>(keyExtractor, keyComparator.reversed());
+		}
+
+		public Function<? super T, ? extends K> getKeyExtractor() {
+			return keyExtractor;
+		}
+
+		public Comparator<? super K> getKeyComparator() {
+			return keyComparator;
+		}
+	}
+
+	/**
+	 * Cache of sort keys extracted by a {@link KeyComparator}, indexed by the items' index in the source list.
+	 * <p>
+	 * Keys are computed lazily, and the cache follows the source changes: it is shifted when items are added or removed,
+	 * and the keys of replaced or updated items are invalidated.
+	 */
+	private static class SortKeys<T> {
+		private static final Object NO_KEY = new Object();
+		private final Function<? super T, ?> extractor;
+		private Object[] keys;
+		private int size;
+
+		SortKeys(Function<? super T, ?> extractor, int size) {
+			this.extractor = extractor;
+			this.keys = new Object[size];
+			this.size = size;
+			Arrays.fill(keys, NO_KEY);
+		}
+
+		SortKeys(SortKeys<T> other) {
+			this.extractor = other.extractor;
+			this.keys = Arrays.copyOf(other.keys, other.size);
+			this.size = other.size;
+		}
+
+		Object get(int index, T item) {
+			Object key = keys[index];
+			if (key == NO_KEY) {
+				key = extractor.apply(item);
+				keys[index] = key;
+			}
+			return key;
+		}
+
+		Object peek(int index) {
+			return keys[index];
+		}
+
+		void fill(List<? extends T> source, int[] indexes, int from, int to) {
+			for (int i = from; i < to; i++) {
+				int index = indexes[i];
+				if (keys[index] == NO_KEY) keys[index] = extractor.apply(source.get(index));
+			}
+		}
+
+		void added(int from, int count) {
+			if (size + count > keys.length) {
+				keys = Arrays.copyOf(keys, Math.max(size + count, size + (size >> 1)));
+			}
+			System.arraycopy(keys, from, keys, from + count, size - from);
+			Arrays.fill(keys, from, from + count, NO_KEY);
+			size += count;
+		}
+
+		void removed(int from, int count) {
+			System.arraycopy(keys, from + count, keys, from, size - from - count);
+			Arrays.fill(keys, size - count, size, null);
+			size -= count;
+		}
+
+		void invalidate(int from, int to) {
+			Arrays.fill(keys, from, to, NO_KEY);
+		}
+
+		void permutate(ListChangeListener.Change<?> c) {
+			int from = c.getFrom();
+			Object[] old = Arrays.copyOfRange(keys, from, c.getTo());
+			for (int i = 0; i < old.length; i++) {
+				keys[c.getPermutation(from + i)] = old[i];
+			}
+		}
+	}
+
+	/**
+	 * {@link RecursiveAction} to compute the missing keys of the given indexes in parallel.
+	 */
+	private static class KeysTask<T> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final SortKeys<T> keys;
+		private final List<? extends T> source;
+		private final int[] indexes;
+		private final int from;
+		private final int to;
+		private final int leafSize;
+
+		KeysTask(SortKeys<T> keys, List<? extends T> source, int[] indexes, int from, int to, int leafSize) {
+			this.keys = keys;
+			this.source = source;
+			this.indexes = indexes;
+			this.from = from;
+			this.to = to;
+			this.leafSize = leafSize;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= leafSize) {
+				keys.fill(source, indexes, from, to);
+				return;
+			}
+
+			int mid = (from + to) >>> 1;
+			invokeAll(
+					new KeysTask<>(keys, source, indexes, from, mid, leafSize),
+					new KeysTask<>(keys, source, indexes, mid, to, leafSize)
+			);
+		}
+	}
+
+	/**
+	 * {@link RecursiveTask} to filter a range of the source list in parallel. The range is split in two halves
+	 * until it is small enough to be tested sequentially, the resulting indexes are then concatenated in order.
+	 */
+	private static class FilterTask<T> extends RecursiveTask<int[]> {
+		private static final long serialVersionUID = 1L;
+
+		private final List<? extends T> source;
+		private final Predicate<? super T> filter;
+		private final int from;
+		private final int to;
+		private final int leafSize;
+
+		FilterTask(List<? extends T> source, Predicate<? super T> filter, int from, int to, int leafSize) {
+			this.source = source;
+			this.filter = filter;
+			this.from = from;
+			this.to = to;
+			this.leafSize = leafSize;
+		}
+
+		@Override
+		protected int[] compute() {
+			if (to - from <= leafSize) {
+				int[] res = new int[to - from];
+				int n = 0;
+				for (int i = from; i < to; i++) {
+					if (filter.test(source.get(i))) res[n++] = i;
+				}
+				return (n == res.length) ? res : Arrays.copyOf(res, n);
+			}
+
+			int mid = (from + to) >>> 1;
+			FilterTask<T> left = new FilterTask<>(source, filter, from, mid, leafSize);
+			FilterTask<T> right = new FilterTask<>(source, filter, mid, to, leafSize);
+			left.fork();
+			int[] rRes = right.compute();
+			int[] lRes = left.join();
+			int[] res = Arrays.copyOf(lRes, lRes.length + rRes.length);
+			System.arraycopy(rRes, 0, res, lRes.length, rRes.length);
+			return res;
+		}
+	}
+
+	/**
+	 * The list of removed items of a change that replaces the whole list, a view over the indexes before the change,
+	 * null indexes mean that the list was in pass-through mode.
+	 * <p>
+	 * Since the previous indexes are replaced and not modified anymore, there is no need to copy them. Items are read from
+	 * the source, which is the same for the whole notification, and copied in a new list only the first time they are accessed.
+	 * Listeners that only check the size of the removed list, or that don't use it at all, never pay for the copy.
+	 */
+	private static class RemovedList<T> extends AbstractList<T> implements RandomAccess {
+		private final List<? extends T> source;
+		private final int[] indexes;
+		private final int size;
+		private List<T> items;
+
+		RemovedList(List<? extends T> source, int[] indexes, int size) {
+			this.source = source;
+			this.indexes = indexes;
+			this.size = size;
+		}
+
+		@Override
+		public T get(int index) {
+			Objects.checkIndex(index, size);
+			if (items == null) {
+				items = new ArrayList<>(size);
+				for (int i = 0; i < size; i++) {
+					items.add(source.get((indexes != null) ? indexes[i] : i));
+				}
+			}
+			return items.get(index);
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+
+	/**
+	 * Simple growable buffer of primitive ints, used to collect indexes without boxing them.
+	 */
+	private static class IntBuffer {
+		private int[] data = new int[8];
+		private int size = 0;
+
+		void addRange(int from, int to) {
+			int required = size + (to - from);
+			if (required > data.length) {
+				data = Arrays.copyOf(data, Math.max(required, data.length * 2));
+			}
+			for (int i = from; i < to; i++) {
+				data[size++] = i;
+			}
+		}
+
+		int get(int index) {
+			return data[index];
+		}
+
+		int size() {
+			return size;
+		}
+
+		boolean isEmpty() {
+			return size == 0;
+		}
 	}
 }
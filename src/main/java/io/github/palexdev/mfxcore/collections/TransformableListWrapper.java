@@ -28,6 +28,7 @@ import javafx.collections.transformation.TransformationList;
 import java.util.AbstractList;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.function.Function;
 import java.util.function.Predicate;
 
 /**
@@ -281,6 +282,13 @@ public class TransformableListWrapper<T> extends AbstractList<T> implements Obse
 		return transformableList.sourceToView(index);
 	}
 
+	/**
+	 * Delegate for {@link TransformableList#batch(Runnable)}.
+	 */
+	public void batch(Runnable action) {
+		transformableList.batch(action);
+	}
+
 	public Predicate<? super T> getPredicate() {
 		return transformableList.getPredicate();
 	}
@@ -311,6 +319,13 @@ public class TransformableListWrapper<T> extends AbstractList<T> implements Obse
 		transformableList.setComparator(comparator);
 	}
 
+	/**
+	 * Delegate for {@link TransformableList#setComparator(Function, Comparator)}.
+	 */
+	public <K> void setComparator(Function<? super T, ? extends K> keyExtractor, Comparator<? super K> keyComparator) {
+		transformableList.setComparator(keyExtractor, keyComparator);
+	}
+
 	/**
 	 * Delegate for {@link TransformableList#setComparator(Comparator, boolean)}.
 	 */
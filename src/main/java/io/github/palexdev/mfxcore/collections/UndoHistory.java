@@ -0,0 +1,291 @@
+/*
+ * Copyright (C) 2022 Parisi Alessandro
+ * This file is part of MFXCore (https://github.com/palexdev/MFXCore).
+ *
+ * MFXCore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MFXCore is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MFXCore.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.palexdev.mfxcore.collections;
+
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.beans.property.ReadOnlyLongProperty;
+import javafx.beans.property.ReadOnlyLongWrapper;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.NoSuchElementException;
+import java.util.function.BinaryOperator;
+import java.util.function.ToLongFunction;
+
+/**
+ * A bounded undo/redo history, made of two stacks of edits.
+ * <p>
+ * New edits are pushed on the undo stack with {@link #push(Object)}, which also clears the redo stack.
+ * {@link #undo()} moves the last edit to the redo stack and returns it, {@link #redo()} does the opposite.
+ * Note that the history only stores the edits, applying or reverting them is up to the caller.
+ * <p></p>
+ * The history can be bounded by the number of entries and/or by their size in bytes, as computed by the given sizer
+ * function. When a bound is exceeded, the oldest edits are evicted. An edit which alone exceeds the bytes limit
+ * is not kept.
+ * <p>
+ * Consecutive compatible edits, for example when typing, can be coalesced into a single entry by specifying
+ * a merge function, see {@link #setMerger(BinaryOperator)}.
+ * <p></p>
+ * {@link #canUndoProperty()}, {@link #canRedoProperty()} and {@link #sizeInBytesProperty()} allow to observe the
+ * state of the history, for example to disable undo/redo buttons.
+ *
+ * @param <E> the type of edits
+ */
+public class UndoHistory<E> {
+	//================================================================================
+	// Properties
+	//================================================================================
+	private final Deque<Entry<E>> undoStack = new ArrayDeque<>();
+	private final Deque<Entry<E>> redoStack = new ArrayDeque<>();
+	private final int maxEntries;
+	private final long maxBytes;
+	private final ToLongFunction<? super E> sizer;
+	private BinaryOperator<E> merger;
+	private boolean mergeable = false;
+	private long bytes = 0;
+
+	private final ReadOnlyBooleanWrapper canUndo = new ReadOnlyBooleanWrapper();
+	private final ReadOnlyBooleanWrapper canRedo = new ReadOnlyBooleanWrapper();
+	private final ReadOnlyLongWrapper sizeInBytes = new ReadOnlyLongWrapper();
+
+	//================================================================================
+	// Constructors
+	//================================================================================
+
+	/**
+	 * Creates a history bounded only by the number of entries. The size in bytes is not tracked.
+	 */
+	public UndoHistory(int maxEntries) {
+		this(maxEntries, Long.MAX_VALUE, e -> 0);
+	}
+
+	/**
+	 * Creates a history bounded only by the size in bytes of the entries, computed by the given function.
+	 */
+	public UndoHistory(long maxBytes, ToLongFunction<? super E> sizer) {
+		this(Integer.MAX_VALUE, maxBytes, sizer);
+	}
+
+	/**
+	 * Creates a history bounded both by the number of entries and by their size in bytes, computed by the given function.
+	 */
+	public UndoHistory(int maxEntries, long maxBytes, ToLongFunction<? super E> sizer) {
+		if (maxEntries <= 0) throw new IllegalArgumentException("Max entries must be greater than 0!");
+		if (maxBytes <= 0) throw new IllegalArgumentException("Max bytes must be greater than 0!");
+		this.maxEntries = maxEntries;
+		this.maxBytes = maxBytes;
+		this.sizer = sizer;
+	}
+
+	//================================================================================
+	// Methods
+	//================================================================================
+
+	/**
+	 * Adds the given edit to the history and clears the redo stack.
+	 * <p>
+	 * If a merge function is set and the last edit can still be merged, the two are coalesced in a single entry,
+	 * otherwise the edit is added as a new entry. In both cases, the oldest entries are evicted if a bound is exceeded.
+	 */
+	public void push(E edit) {
+		while (!redoStack.isEmpty()) {
+			bytes -= redoStack.pop().bytes;
+		}
+		Entry<E> last = undoStack.peekFirst();
+		E merged = (merger != null && mergeable && last != null) ? merger.apply(last.edit, edit) : null;
+		if (merged != null) {
+			bytes -= undoStack.removeFirst().bytes;
+			edit = merged;
+		}
+		Entry<E> entry = new Entry<>(edit, sizer.applyAsLong(edit));
+		undoStack.addFirst(entry);
+		bytes += entry.bytes;
+		mergeable = true;
+		evict();
+		updateProperties();
+	}
+
+	/**
+	 * Moves the last edit to the redo stack.
+	 *
+	 * @return the edit to revert
+	 * @throws NoSuchElementException if there is nothing to undo
+	 */
+	public E undo() throws NoSuchElementException {
+		Entry<E> entry = undoStack.pop();
+		redoStack.push(entry);
+		mergeable = false;
+		updateProperties();
+		return entry.edit;
+	}
+
+	/**
+	 * Moves the last undone edit back to the undo stack.
+	 *
+	 * @return the edit to apply again
+	 * @throws NoSuchElementException if there is nothing to redo
+	 */
+	public E redo() throws NoSuchElementException {
+		Entry<E> entry = redoStack.pop();
+		undoStack.push(entry);
+		mergeable = false;
+		updateProperties();
+		return entry.edit;
+	}
+
+	/**
+	 * @return the edit that would be returned by {@link #undo()}, or null if there is nothing to undo
+	 */
+	public E peekUndo() {
+		Entry<E> entry = undoStack.peekFirst();
+		return (entry != null) ? entry.edit : null;
+	}
+
+	/**
+	 * @return the edit that would be returned by {@link #redo()}, or null if there is nothing to redo
+	 */
+	public E peekRedo() {
+		Entry<E> entry = redoStack.peekFirst();
+		return (entry != null) ? entry.edit : null;
+	}
+
+	/**
+	 * Prevents the next edit from being merged with the last one, for example after a caret move or a pause in typing.
+	 */
+	public void preventMerge() {
+		mergeable = false;
+	}
+
+	/**
+	 * Removes all the edits from the history.
+	 */
+	public void clear() {
+		undoStack.clear();
+		redoStack.clear();
+		bytes = 0;
+		mergeable = false;
+		updateProperties();
+	}
+
+	/**
+	 * @return the number of edits that can be undone
+	 */
+	public int getUndoCount() {
+		return undoStack.size();
+	}
+
+	/**
+	 * @return the number of edits that can be redone
+	 */
+	public int getRedoCount() {
+		return redoStack.size();
+	}
+
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * Evicts the oldest edits until the history is within its bounds.
+	 */
+	private void evict() {
+		while (!undoStack.isEmpty() && (undoStack.size() + redoStack.size() > maxEntries || bytes > maxBytes)) {
+			bytes -= undoStack.removeLast().bytes;
+			if (undoStack.isEmpty()) mergeable = false;
+		}
+	}
+
+	private void updateProperties() {
+		canUndo.set(!undoStack.isEmpty());
+		canRedo.set(!redoStack.isEmpty());
+		sizeInBytes.set(bytes);
+	}
+
+	//================================================================================
+	// Getters/Setters
+	//================================================================================
+	public BinaryOperator<E> getMerger() {
+		return merger;
+	}
+
+	/**
+	 * Sets the function used to coalesce consecutive edits.
+	 * <p>
+	 * The function is given the last edit and the new one, and should return the edit that replaces both of them,
+	 * or null if they cannot be merged.
+	 */
+	public void setMerger(BinaryOperator<E> merger) {
+		this.merger = merger;
+	}
+
+	public boolean canUndo() {
+		return canUndo.get();
+	}
+
+	/**
+	 * Specifies whether there are edits that can be undone.
+	 */
+	public ReadOnlyBooleanProperty canUndoProperty() {
+		return canUndo.getReadOnlyProperty();
+	}
+
+	public boolean canRedo() {
+		return canRedo.get();
+	}
+
+	/**
+	 * Specifies whether there are edits that can be redone.
+	 */
+	public ReadOnlyBooleanProperty canRedoProperty() {
+		return canRedo.getReadOnlyProperty();
+	}
+
+	public long getSizeInBytes() {
+		return sizeInBytes.get();
+	}
+
+	/**
+	 * Specifies the total size in bytes of the edits in the history, as computed by the sizer function.
+	 */
+	public ReadOnlyLongProperty sizeInBytesProperty() {
+		return sizeInBytes.getReadOnlyProperty();
+	}
+
+	//================================================================================
+	// Internal Classes
+	//================================================================================
+
+	/**
+	 * Wraps an edit and caches its size.
+	 */
+	private static class Entry<E> {
+		private final E edit;
+		private final long bytes;
+
+		Entry(E edit, long bytes) {
+			this.edit = edit;
+			this.bytes = bytes;
+		}
+	}
+}
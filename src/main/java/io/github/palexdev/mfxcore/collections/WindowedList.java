@@ -0,0 +1,231 @@
+/*
+ * Copyright (C) 2022 Parisi Alessandro
+ * This file is part of MFXCore (https://github.com/palexdev/MFXCore).
+ *
+ * MFXCore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MFXCore is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with MFXCore.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.palexdev.mfxcore.collections;
+
+import io.github.palexdev.mfxcore.base.beans.range.IntegerRange;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.TransformationList;
+
+import java.util.Arrays;
+
+/**
+ * A {@code WindowedList} is a view over a range of another {@link ObservableList}, typically a {@link TransformableList}
+ * shown by a virtualized control, which only contains the elements in the {@link #viewportProperty()}.
+ * <p>
+ * The viewport is a range of indexes of the source list (bounds included), clamped to the source's size.
+ * The element at index 0 of this list is the one at index {@code viewport.getMin()} in the source.
+ * <p></p>
+ * Listeners of this list are only notified about the changes that involve the elements in the viewport:
+ * <p> - when the viewport moves, for example on scroll, the elements that left and entered the window are
+ * reported as removed/added
+ * <p> - when the source changes, the change is translated in terms of the window, source changes that happen
+ * entirely after the window are ignored
+ * <p></p>
+ * In both cases, the cost only depends on the size of the window, not on the size of the source. To do so the list
+ * keeps a snapshot of the elements in the window, and for each change computes the new position of each of them.
+ *
+ * @param <E> the elements' type
+ */
+public class WindowedList<E> extends TransformationList<E, E> {
+	//================================================================================
+	// Properties
+	//================================================================================
+	private int from = 0;
+	private int size = 0;
+	private Object[] snapshot = new Object[0];
+	private int[] positions = new int[0];
+	private boolean[] updated = new boolean[0];
+
+	private final ObjectProperty<IntegerRange> viewport = new SimpleObjectProperty<>() {
+		@Override
+		protected void invalidated() {
+			reset();
+			publish();
+		}
+	};
+
+	//================================================================================
+	// Constructors
+	//================================================================================
+	public WindowedList(ObservableList<? extends E> source) {
+		this(source, null);
+	}
+
+	public WindowedList(ObservableList<? extends E> source, IntegerRange viewport) {
+		super(source);
+		setViewport(viewport);
+	}
+
+	//================================================================================
+	// Methods
+	//================================================================================
+
+	/**
+	 * Resets the positions of the elements in the snapshot to their current position in the source.
+	 */
+	private void reset() {
+		for (int j = 0; j < size; j++) {
+			positions[j] = from + j;
+			updated[j] = false;
+		}
+	}
+
+	/**
+	 * Computes the window from the current viewport and source, fires the difference with the snapshot
+	 * (whose elements positions must be up-to-date) and takes a new snapshot.
+	 */
+	@SuppressWarnings("unchecked")
+	private void publish() {
+		int oldSize = size;
+		Object[] oldSnapshot = snapshot;
+		int[] oldPositions = positions;
+		boolean[] oldUpdated = updated;
+
+		IntegerRange range = getViewport();
+		int sourceSize = getSource().size();
+		int newFrom = (range == null) ? 0 : Math.max(0, range.getMin());
+		int newTo = (range == null) ? 0 : Math.min(sourceSize, range.getMax() + 1);
+		int newSize = Math.max(0, newTo - newFrom);
+
+		int[] origins = new int[newSize];
+		boolean[] newUpdated = new boolean[newSize];
+		Arrays.fill(origins, -1);
+		for (int j = 0; j < oldSize; j++) {
+			int position = oldPositions[j] - newFrom;
+			if (position >= 0 && position < newSize) {
+				origins[position] = j;
+				newUpdated[position] = oldUpdated[j];
+			}
+		}
+
+		from = newFrom;
+		size = newSize;
+		snapshot = new Object[newSize];
+		positions = new int[newSize];
+		updated = new boolean[newSize];
+		for (int i = 0; i < newSize; i++) {
+			snapshot[i] = getSource().get(newFrom + i);
+		}
+		reset();
+
+		IterableChange<E> change = IterableChange.diff(this, oldSize, j -> (E) oldSnapshot[j], origins, newUpdated, newSize);
+		if (!change.isEmpty()) fireChange(change);
+	}
+
+	/**
+	 * @return whether a sub-change starting at the given index may involve the elements in the window.
+	 * Sub-changes which start after the viewport only move elements that are after the viewport
+	 */
+	private boolean affectsWindow(int changeFrom) {
+		IntegerRange range = getViewport();
+		return range != null && changeFrom <= range.getMax();
+	}
+
+	/**
+	 * @return the index in the source of the first element in the window
+	 */
+	public int getWindowStart() {
+		return from;
+	}
+
+	//================================================================================
+	// Overridden Methods
+	//================================================================================
+
+	/**
+	 * Computes the new position in the source of the elements in the snapshot, sub-change by sub-change,
+	 * then fires the difference between the snapshot and the new window.
+	 * <p>
+	 * If every sub-change happens after the window, nothing is done.
+	 */
+	@Override
+	protected void sourceChanged(ListChangeListener.Change<? extends E> c) {
+		boolean affected = false;
+		while (c.next()) {
+			int changeFrom = c.getFrom();
+			if (!affectsWindow(changeFrom)) continue;
+			affected = true;
+
+			if (c.wasPermutated()) {
+				for (int j = 0; j < size; j++) {
+					int position = positions[j];
+					if (position >= changeFrom && position < c.getTo()) positions[j] = c.getPermutation(position);
+				}
+			} else if (c.wasUpdated()) {
+				for (int j = 0; j < size; j++) {
+					int position = positions[j];
+					if (position >= changeFrom && position < c.getTo()) updated[j] = true;
+				}
+			} else {
+				int removedTo = changeFrom + c.getRemovedSize();
+				int delta = c.getAddedSize() - c.getRemovedSize();
+				for (int j = 0; j < size; j++) {
+					int position = positions[j];
+					if (position < changeFrom) continue;
+					positions[j] = (position < removedTo) ? -1 : position + delta;
+				}
+			}
+		}
+		if (affected) publish();
+	}
+
+	@Override
+	public int getSourceIndex(int index) {
+		return from + index;
+	}
+
+	@Override
+	public int getViewIndex(int index) {
+		int viewIndex = index - from;
+		return (viewIndex >= 0 && viewIndex < size) ? viewIndex : -1;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E get(int index) {
+		return (E) snapshot[index];
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	//================================================================================
+	// Getters/Setters
+	//================================================================================
+	public IntegerRange getViewport() {
+		return viewport.get();
+	}
+
+	/**
+	 * Specifies the range of indexes of the source list contained by this list, bounds included.
+	 * A null viewport means an empty window.
+	 */
+	public ObjectProperty<IntegerRange> viewportProperty() {
+		return viewport;
+	}
+
+	public void setViewport(IntegerRange viewport) {
+		this.viewport.set(viewport);
+	}
+}
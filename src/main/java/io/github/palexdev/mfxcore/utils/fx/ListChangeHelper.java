@@ -23,16 +23,23 @@ import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.IntConsumer;
 
 /**
  * Helper class to process {@link ListChangeListener.Change}s in a list of items of type T.
+ * <p>
+ * The processing is stateless, so the same helper can be shared and used concurrently by multiple lists, threads
+ * or reentrant listeners. The range used to filter the indexes is either bound to a new helper, see {@link #withRange(IntegerRange)},
+ * or given to {@link #processChange(ListChangeListener.Change, IntegerRange)}.
+ * <p>
+ * The deprecated {@link #setRange(IntegerRange)} still modifies the helper it's called on, and thus is not safe
+ * on the shared {@link #instance()}.
  */
 public class ListChangeHelper {
 	//================================================================================
 	// Singleton
 	//================================================================================
-	private static final ListChangeHelper instance = new ListChangeHelper();
+	private static final ListChangeHelper instance = new ListChangeHelper(IntegerRange.of(0, Integer.MAX_VALUE));
 
 	public static ListChangeHelper instance() {
 		return instance;
@@ -41,12 +48,15 @@ public class ListChangeHelper {
 	//================================================================================
 	// Properties
 	//================================================================================
-	private IntegerRange range = IntegerRange.of(0, Integer.MAX_VALUE);
+	private final IntegerRange range;
+	private volatile IntegerRange tmpRange;
 
 	//================================================================================
 	// Constructors
 	//================================================================================
-	private ListChangeHelper() {}
+	private ListChangeHelper(IntegerRange range) {
+		this.range = range;
+	}
 
 	//================================================================================
 	// Methods
@@ -83,35 +93,53 @@ public class ListChangeHelper {
 	 * <p></p>
 	 *
 	 * Last but not least this is also capable of filtering the indexes if you specify a bound range with
-	 * {@link #setRange(IntegerRange)}. At the end od the processing the range is ALWAYS reset.
+	 * {@link #withRange(IntegerRange)}. A range set with {@link #setRange(IntegerRange)} takes precedence,
+	 * and at the end of the processing it's ALWAYS reset.
+	 * <p>
+	 * The returned list and its changes are immutable.
 	 */
 	public <T> List<Change> processChange(ListChangeListener.Change<? extends T> change) {
+		IntegerRange range = tmpRange;
+		if (range == null) return processChange(change, this.range);
+		try {
+			return processChange(change, range);
+		} finally {
+			tmpRange = null;
+		}
+	}
+
+	/**
+	 * Same as {@link #processChange(ListChangeListener.Change)} but the indexes are filtered with the given range.
+	 */
+	public static <T> List<Change> processChange(ListChangeListener.Change<? extends T> change, IntegerRange range) {
 		List<Change> changes = new ArrayList<>();
 
 		int removedSize = 0;
 		int removeFrom = -1;
 		int removeTo = -1;
-		Set<Integer> removedAccumulator = new HashSet<>();
+		Intervals removedAccumulator = new Intervals();
 
 		while (change.next()) {
 			if (change.wasPermutated()) {
-				Set<Integer> indexes = (range.getMax() == Integer.MAX_VALUE) ? Set.of() : IntegerRange.expandRangeToSet(range);
+				Intervals indexes = new Intervals();
+				if (range.getMax() != Integer.MAX_VALUE) indexes.add(range.getMin(), range.getMax());
 				changes.add(new Change(ChangeType.PERMUTATION, range, indexes));
 				continue;
 			}
 
 			if (change.wasReplaced()) {
 				IntegerRange repRange = IntegerRange.of(change.getFrom(), change.getTo() - 1);
-				Set<Integer> changed = IntegerRange.expandRangeToSet(repRange).stream()
-						.filter(i -> IntegerRange.inRangeOf(i, range))
-						.collect(Collectors.toSet());
+				Intervals changed = new Intervals();
+				changed.add(Math.max(repRange.getMin(), range.getMin()), Math.min(repRange.getMax(), range.getMax()));
 				changes.add(new Change(ChangeType.REPLACE, repRange, changed));
 				continue;
 			}
 
 			if (change.wasAdded()) {
 				IntegerRange addRange = IntegerRange.of(change.getFrom(), change.getTo() - 1);
-				changes.add(new Change(ChangeType.ADD, addRange, IntegerRange.expandRangeToSet(addRange)));
+				Intervals added = new Intervals();
+				added.add(addRange.getMin(), addRange.getMax());
+				changes.add(new Change(ChangeType.ADD, addRange, added));
 				continue;
 			}
 
@@ -121,7 +149,7 @@ public class ListChangeHelper {
 				IntegerRange remRange = computeRemovedIndexes(change, removedSize);
 				if (removeFrom == -1) removeFrom = remRange.getMin();
 				removeTo = remRange.getMax();
-				removedAccumulator.addAll(IntegerRange.expandRangeToSet(remRange));
+				removedAccumulator.add(remRange.getMin(), remRange.getMax());
 				removedSize += change.getRemovedSize();
 			}
 		}
@@ -129,31 +157,54 @@ public class ListChangeHelper {
 		if (!removedAccumulator.isEmpty())
 			changes.add(new Change(ChangeType.REMOVE, IntegerRange.of(removeFrom, removeTo), removedAccumulator));
 
-		resetRange();
-		return changes;
+		return Collections.unmodifiableList(changes);
 	}
 
 	/**
-	 * Sets the range used to limit the indexes computed by {@link #processChange(ListChangeListener.Change)}.
+	 * This does not modify this helper, so it's safe to call on the shared {@link #instance()}.
+	 *
+	 * @return a helper that uses the given range to limit the indexes computed by {@link #processChange(ListChangeListener.Change)}
 	 */
+	public ListChangeHelper withRange(IntegerRange range) {
+		return new ListChangeHelper(range);
+	}
+
+	/**
+	 * Sets the range used to limit the indexes computed by the next {@link #processChange(ListChangeListener.Change)}.
+	 *
+	 * @deprecated this modifies the helper, which is usually the shared one, use {@link #withRange(IntegerRange)}
+	 * or {@link #processChange(ListChangeListener.Change, IntegerRange)} instead
+	 */
+	@Deprecated
 	public ListChangeHelper setRange(IntegerRange range) {
-		this.range = range;
+		this.tmpRange = range;
 		return this;
 	}
 
 	/**
-	 * Resets the range set with {@link #setRange(IntegerRange)}, replaced by {@code [0, Integer.MAX_VALUE]}.
+	 * Resets the range set with {@link #setRange(IntegerRange)}.
+	 *
+	 * @deprecated see {@link #setRange(IntegerRange)}
 	 */
+	@Deprecated
 	public ListChangeHelper resetRange() {
-		this.range = IntegerRange.of(0, Integer.MAX_VALUE);
+		this.tmpRange = null;
 		return this;
 	}
 
+	/**
+	 * @return the range set with {@link #setRange(IntegerRange)} if any, otherwise the one bound to this helper
+	 */
+	public IntegerRange getRange() {
+		IntegerRange range = tmpRange;
+		return (range != null) ? range : this.range;
+	}
+
 	/**
 	 * Helper method to correctly compute the index of one or multiple removal
 	 * changes.
 	 */
-	private <T> IntegerRange computeRemovedIndexes(ListChangeListener.Change<? extends T> change, int toOffset) {
+	private static <T> IntegerRange computeRemovedIndexes(ListChangeListener.Change<? extends T> change, int toOffset) {
 		int size = change.getList().size();
 		if (size == 0) {
 			return IntegerRange.of(0, change.getRemovedSize() - 1);
@@ -168,38 +219,95 @@ public class ListChangeHelper {
 	 * Bean that contains:
 	 * <p> - The type of change, see {@link ChangeType}
 	 * <p> - The range of changed indexes
-	 * <p> - The changed indexes as a {@link Set} of integers
+	 * <p> - The changed indexes, stored as sorted and disjoint intervals
+	 * <p></p>
+	 * Since a change usually involves contiguous indexes, storing intervals is much cheaper than storing each index.
+	 * {@link #hasChanged(int)} is answered with a binary search on the intervals, and the changed indexes
+	 * can be iterated without boxing with {@link #forEachIndex(IntConsumer)}. {@link #getIndexes()} builds
+	 * an unmodifiable {@link Set} of boxed integers lazily, only when it's requested.
+	 * <p>
+	 * Changes are immutable, thus safe to share between threads.
 	 */
 	public static class Change {
 		private final ChangeType type;
 		private final IntegerRange range;
-		private final Set<Integer> indexes = new HashSet<>();
+		private final int[] starts;
+		private final int[] ends;
+		private final int size;
+		private volatile Set<Integer> indexes;
 
 		public Change(ChangeType type, IntegerRange range) {
-			this.type = type;
-			this.range = range;
+			this(type, range, new Intervals());
 		}
 
 		public Change(ChangeType type, IntegerRange range, Collection<Integer> indexes) {
+			this(type, range, Intervals.of(indexes));
+		}
+
+		private Change(ChangeType type, IntegerRange range, Intervals intervals) {
 			this.type = type;
 			this.range = range;
-			this.indexes.addAll(indexes);
+			intervals.normalize();
+			this.starts = Arrays.copyOf(intervals.starts, intervals.count);
+			this.ends = Arrays.copyOf(intervals.ends, intervals.count);
+			int size = 0;
+			for (int i = 0; i < starts.length; i++) {
+				size += ends[i] - starts[i] + 1;
+			}
+			this.size = size;
 		}
 
+		/**
+		 * @return the changed indexes as an unmodifiable {@link Set} of integers, sorted in ascending order.
+		 * The set is built on the first call
+		 */
 		public Set<Integer> getIndexes() {
+			Set<Integer> indexes = this.indexes;
+			if (indexes == null) {
+				Set<Integer> set = new LinkedHashSet<>(Math.max(16, (int) (size / .75f) + 1));
+				forEachIndex(set::add);
+				indexes = Collections.unmodifiableSet(set);
+				this.indexes = indexes;
+			}
 			return indexes;
 		}
 
+		/**
+		 * Calls the given action for each changed index, in ascending order.
+		 */
+		public void forEachIndex(IntConsumer action) {
+			for (int i = 0; i < starts.length; i++) {
+				for (int index = starts[i]; index <= ends[i]; index++) {
+					action.accept(index);
+				}
+			}
+		}
+
 		public int size() {
-			return indexes.size();
+			return size;
 		}
 
 		public boolean isEmpty() {
-			return indexes.isEmpty();
+			return size == 0;
 		}
 
+		/**
+		 * @return whether the given index is among the changed ones, in O(log k) where k is the number of intervals
+		 */
 		public boolean hasChanged(int index) {
-			return indexes.contains(index);
+			int low = 0;
+			int high = starts.length - 1;
+			while (low <= high) {
+				int mid = (low + high) >>> 1;
+				if (index < starts[mid]) {
+					high = mid - 1;
+				} else if (index > ends[mid]) {
+					low = mid + 1;
+				} else {
+					return true;
+				}
+			}
+			return false;
 		}
 
 		public ChangeType getType() {
@@ -215,6 +323,70 @@ public class ListChangeHelper {
 		}
 	}
 
+	/**
+	 * Accumulates intervals of indexes (bounds included), which are then sorted and merged by {@link #normalize()}.
+	 */
+	private static class Intervals {
+		private int[] starts = new int[4];
+		private int[] ends = new int[4];
+		private int count = 0;
+		private boolean sorted = true;
+
+		static Intervals of(Collection<Integer> indexes) {
+			Intervals intervals = new Intervals();
+			int[] values = indexes.stream().mapToInt(Integer::intValue).sorted().toArray();
+			for (int value : values) {
+				intervals.add(value, value);
+			}
+			return intervals;
+		}
+
+		/**
+		 * Adds the given interval, ignored if empty (from greater than to).
+		 */
+		void add(int from, int to) {
+			if (from > to) return;
+			if (count > 0) {
+				int last = count - 1;
+				if (from >= starts[last] && from <= (long) ends[last] + 1) {
+					ends[last] = Math.max(ends[last], to);
+					return;
+				}
+				if (from < starts[last]) sorted = false;
+			}
+			if (count == starts.length) {
+				starts = Arrays.copyOf(starts, count << 1);
+				ends = Arrays.copyOf(ends, count << 1);
+			}
+			starts[count] = from;
+			ends[count] = to;
+			count++;
+		}
+
+		boolean isEmpty() {
+			return count == 0;
+		}
+
+		/**
+		 * Sorts the intervals by their start and merges the ones that overlap or are adjacent.
+		 */
+		void normalize() {
+			if (sorted || count < 2) return;
+			Integer[] order = new Integer[count];
+			for (int i = 0; i < count; i++) order[i] = i;
+			Arrays.sort(order, Comparator.comparingInt(i -> starts[i]));
+			int[] oldStarts = starts;
+			int[] oldEnds = ends;
+			starts = new int[count];
+			ends = new int[count];
+			count = 0;
+			sorted = true;
+			for (Integer i : order) {
+				add(oldStarts[i], oldEnds[i]);
+			}
+		}
+	}
+
 	/**
 	 * Enumerator to represent the various types of {@link ListChangeListener.Change}s
 	 */